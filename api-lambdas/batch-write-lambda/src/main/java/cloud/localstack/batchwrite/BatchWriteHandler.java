@@ -0,0 +1,89 @@
+package cloud.localstack.batchwrite;
+
+import cloud.localstack.db.lifecycle.Priming;
+import cloud.localstack.db.lifecycle.SnapStartLifecycle;
+import cloud.localstack.db.metrics.InvocationMetrics;
+import cloud.localstack.db.pool.ConnectionPool;
+import cloud.localstack.db.pool.PoolConfig;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Consumes SQS batches of dog writes (see {@link WriteRequest} for the message body) and applies them through
+ * {@link BatchWriter}. Only the messages that failed are returned in {@code batchItemFailures}, so the event
+ * source mapping needs {@code ReportBatchItemFailures} enabled. Messages that cannot be parsed are reported as
+ * failed too and end up in the dead-letter queue once the queue's redrive policy gives up on them.
+ */
+public class BatchWriteHandler implements RequestHandler<Map<String, Object>, Map<String, Object>> {
+
+    static final String FUNCTION_NAME = "batch-write";
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final String SECRET_ARN = System.getenv("SECRET_ARN");
+    private static final String REGION = System.getenv("AWS_REGION");
+    private static final String DATABASE_NAME = System.getenv("DATABASE_NAME");
+    private static final String HOST = System.getenv("HOST");
+
+    private static final ConnectionPool pool = new ConnectionPool(PoolConfig.fromEnv(),
+            () -> DatabaseUtil.getConnectionWithUserPassword(REGION, SECRET_ARN, HOST, DATABASE_NAME));
+
+    private static final BatchWriter writer = BatchWriter.fromEnv(pool);
+
+    static {
+        pool.warmUp();
+        SnapStartLifecycle.getInstance()
+                .register(pool)
+                .onPrime(Priming.jackson(objectMapper))
+                .onPrime(Priming.postgresDriver());
+    }
+
+    @Override
+    public Map<String, Object> handleRequest(Map<String, Object> event, Context context) {
+        InvocationMetrics metrics = InvocationMetrics.begin(FUNCTION_NAME);
+        metrics.method("SQS");
+        int statusCode = 500;
+        try {
+            List<Map<String, Object>> records = records(event);
+            List<String> failed = new ArrayList<>();
+            List<WriteRequest> requests = new ArrayList<>(records.size());
+            for (Map<String, Object> record : records) {
+                String messageId = (String) record.get("messageId");
+                try {
+                    requests.add(WriteRequest.parse(objectMapper, messageId, (String) record.get("body")));
+                } catch (IOException | IllegalArgumentException e) {
+                    System.out.println("Rejecting message " + messageId + ": " + e.getMessage());
+                    failed.add(messageId);
+                }
+            }
+
+            failed.addAll(writer.write(requests));
+
+            System.out.println("Batch write finished! Messages: " + records.size() + ", failed: " + failed.size());
+            statusCode = failed.isEmpty() ? 200 : 207;
+            return batchResponse(failed);
+        } finally {
+            metrics.finish(statusCode);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> records(Map<String, Object> event) {
+        Object records = event == null ? null : event.get("Records");
+        return records instanceof List<?> list ? (List<Map<String, Object>>) list : List.of();
+    }
+
+    private static Map<String, Object> batchResponse(List<String> failedMessageIds) {
+        List<Map<String, Object>> failures = new ArrayList<>(failedMessageIds.size());
+        for (String messageId : failedMessageIds) {
+            // an empty identifier makes Lambda retry the whole batch, the safe outcome for a malformed record
+            failures.add(Map.of("itemIdentifier", Objects.toString(messageId, "")));
+        }
+        return Map.of("batchItemFailures", failures);
+    }
+}
@@ -0,0 +1,254 @@
+package cloud.localstack.batchwrite;
+
+import cloud.localstack.batchwrite.WriteRequest.Operation;
+import cloud.localstack.db.metrics.InvocationMetrics;
+import cloud.localstack.db.pool.ConnectionPool;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Writes a batch of mixed operations as JDBC batches, one transaction per chunk of the same operation.
+ * <p>
+ * Independent chunks run on virtual threads; the pool's size bounds how many of them hold a connection at a
+ * time, the rest park while waiting for one. Each task reports its timings and counters into the invocation's
+ * metrics. Creates never touch an existing row, so their chunks run in
+ * parallel. Updates run in order, and when a delete targets a dog that is also updated in the batch, the
+ * deletes run after the updates on the same thread.
+ * <p>
+ * If a chunk fails, it is rolled back and its operations are retried one by one, so only the messages that
+ * fail on their own are reported back for redelivery. A chunk that loses its connection is reported back whole,
+ * although its commit may have gone through. Creates store their message id and skip a message id that is already
+ * there, so a redelivered create does not add the dog twice.
+ */
+public class BatchWriter {
+
+    static final int DEFAULT_CHUNK_SIZE = 500;
+
+    private static final String INSERT_QUERY = "INSERT INTO dogs (name, age, category, message_id) " +
+            "VALUES (?, ?, ?, ?) ON CONFLICT (message_id) DO NOTHING";
+    private static final String UPDATE_QUERY = "UPDATE dogs SET name = COALESCE(?, name), " +
+            "age = COALESCE(?::int, age), category = COALESCE(?, category), version = version + 1 WHERE id = ?";
+    private static final String DELETE_QUERY = "DELETE FROM dogs WHERE id = ?";
+
+    private final ConnectionPool pool;
+    private final int chunkSize;
+
+    public BatchWriter(ConnectionPool pool, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be at least 1");
+        }
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+    }
+
+    public static BatchWriter fromEnv(ConnectionPool pool) {
+        String chunkSize = System.getenv("BATCH_CHUNK_SIZE");
+        return new BatchWriter(pool, chunkSize == null || chunkSize.isBlank()
+                ? DEFAULT_CHUNK_SIZE : Integer.parseInt(chunkSize.trim()));
+    }
+
+    /**
+     * Apply the writes and return the message ids of those that failed.
+     */
+    public List<String> write(List<WriteRequest> requests) {
+        if (requests.isEmpty()) {
+            return List.of();
+        }
+        Map<Operation, List<WriteRequest>> groups = new EnumMap<>(Operation.class);
+        for (WriteRequest request : requests) {
+            groups.computeIfAbsent(request.operation(), operation -> new ArrayList<>()).add(request);
+        }
+
+        List<Callable<List<String>>> tasks = plan(groups);
+        List<String> failed = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Future<List<String>> future : executor.invokeAll(tasks)) {
+                failed.addAll(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while writing the batch", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Batch write failed", e.getCause());
+        }
+        return failed;
+    }
+
+    private List<Callable<List<String>>> plan(Map<Operation, List<WriteRequest>> groups) {
+        List<Callable<List<String>>> tasks = new ArrayList<>();
+        for (List<WriteRequest> chunk : chunks(groups.getOrDefault(Operation.CREATE, List.of()))) {
+            tasks.add(InvocationMetrics.propagate(() -> writeChunk(Operation.CREATE, chunk)));
+        }
+
+        List<WriteRequest> updates = groups.getOrDefault(Operation.UPDATE, List.of());
+        List<WriteRequest> deletes = groups.getOrDefault(Operation.DELETE, List.of());
+        if (overlap(updates, deletes)) {
+            tasks.add(InvocationMetrics.propagate(() -> {
+                List<String> failed = writeInOrder(Operation.UPDATE, updates);
+                failed.addAll(writeInOrder(Operation.DELETE, deletes));
+                return failed;
+            }));
+        } else {
+            if (!updates.isEmpty()) {
+                tasks.add(InvocationMetrics.propagate(() -> writeInOrder(Operation.UPDATE, updates)));
+            }
+            if (!deletes.isEmpty()) {
+                tasks.add(InvocationMetrics.propagate(() -> writeInOrder(Operation.DELETE, deletes)));
+            }
+        }
+        return tasks;
+    }
+
+    private List<String> writeInOrder(Operation operation, List<WriteRequest> requests) {
+        List<String> failed = new ArrayList<>();
+        for (List<WriteRequest> chunk : chunks(requests)) {
+            failed.addAll(writeChunk(operation, chunk));
+        }
+        return failed;
+    }
+
+    private List<String> writeChunk(Operation operation, List<WriteRequest> chunk) {
+        try {
+            int[] counts = pool.withConnection(connection -> executeBatch(connection, operation, chunk));
+            logMissing(operation, chunk, counts);
+            return new ArrayList<>();
+        } catch (SQLException e) {
+            if (ConnectionPool.isConnectionFailure(e)) {
+                System.out.println("Could not write " + chunk.size() + " " + operation + " operations: " + e.getMessage());
+                return messageIds(chunk);
+            }
+            System.out.println("Batch of " + chunk.size() + " " + operation
+                    + " operations failed, retrying one by one: " + e.getMessage());
+            return writeIndividually(operation, chunk);
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            return messageIds(chunk);
+        }
+    }
+
+    private List<String> writeIndividually(Operation operation, List<WriteRequest> chunk) {
+        List<String> failed = new ArrayList<>();
+        for (WriteRequest request : chunk) {
+            try {
+                pool.withConnection(connection -> {
+                    try (PreparedStatement stmt = connection.prepareStatement(query(operation))) {
+                        bind(stmt, request);
+                        return stmt.executeUpdate();
+                    }
+                });
+            } catch (SQLException | RuntimeException e) {
+                System.out.println("Message " + request.messageId() + " failed: " + e.getMessage());
+                failed.add(request.messageId());
+            }
+        }
+        return failed;
+    }
+
+    private static int[] executeBatch(Connection connection, Operation operation, List<WriteRequest> chunk)
+            throws SQLException {
+        connection.setAutoCommit(false);
+        try (PreparedStatement stmt = connection.prepareStatement(query(operation))) {
+            for (WriteRequest request : chunk) {
+                bind(stmt, request);
+                stmt.addBatch();
+            }
+            int[] counts = stmt.executeBatch();
+            connection.commit();
+            return counts;
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private static String query(Operation operation) {
+        return switch (operation) {
+            case CREATE -> INSERT_QUERY;
+            case UPDATE -> UPDATE_QUERY;
+            case DELETE -> DELETE_QUERY;
+        };
+    }
+
+    private static void bind(PreparedStatement stmt, WriteRequest request) throws SQLException {
+        switch (request.operation()) {
+            case CREATE -> {
+                stmt.setString(1, request.name());
+                stmt.setInt(2, request.age());
+                stmt.setString(3, request.category());
+                stmt.setString(4, request.messageId());
+            }
+            case UPDATE -> {
+                stmt.setString(1, request.name());
+                stmt.setObject(2, request.age(), Types.INTEGER);
+                stmt.setString(3, request.category());
+                stmt.setInt(4, request.id());
+            }
+            case DELETE -> stmt.setInt(1, request.id());
+        }
+    }
+
+    /**
+     * Updates and deletes of dogs that no longer exist succeed without effect; retrying them would not help.
+     * A create without effect is a redelivered message whose dog already exists.
+     */
+    private static void logMissing(Operation operation, List<WriteRequest> chunk, int[] counts) {
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                continue;
+            }
+            if (operation == Operation.CREATE) {
+                System.out.println("Message " + chunk.get(i).messageId() + " was already applied.");
+            } else {
+                System.out.println("No " + operation + " performed. Record with ID " + chunk.get(i).id() + " does not exist.");
+            }
+        }
+    }
+
+    private List<List<WriteRequest>> chunks(List<WriteRequest> requests) {
+        List<List<WriteRequest>> chunks = new ArrayList<>();
+        for (int from = 0; from < requests.size(); from += chunkSize) {
+            chunks.add(requests.subList(from, Math.min(from + chunkSize, requests.size())));
+        }
+        return chunks;
+    }
+
+    private static boolean overlap(List<WriteRequest> updates, List<WriteRequest> deletes) {
+        if (updates.isEmpty() || deletes.isEmpty()) {
+            return false;
+        }
+        Set<Integer> updated = new HashSet<>();
+        for (WriteRequest update : updates) {
+            updated.add(update.id());
+        }
+        for (WriteRequest delete : deletes) {
+            if (updated.contains(delete.id())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<String> messageIds(List<WriteRequest> requests) {
+        List<String> ids = new ArrayList<>(requests.size());
+        for (WriteRequest request : requests) {
+            ids.add(request.messageId());
+        }
+        return ids;
+    }
+}
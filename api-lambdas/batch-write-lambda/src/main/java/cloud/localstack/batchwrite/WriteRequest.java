@@ -0,0 +1,92 @@
+package cloud.localstack.batchwrite;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * One write from an SQS message body, for example {@code {"operation":"update","id":7,"age":4}}.
+ * Creates need name, age and category; updates need the id and at least one field; deletes need the id.
+ */
+public record WriteRequest(String messageId, Operation operation, Integer id, String name, Integer age,
+                           String category) {
+
+    public enum Operation {
+        CREATE, UPDATE, DELETE;
+
+        static Operation parse(String value) {
+            if (value == null) {
+                throw new IllegalArgumentException("Missing 'operation'");
+            }
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown operation '" + value + "'");
+            }
+        }
+    }
+
+    public static WriteRequest parse(ObjectMapper objectMapper, String messageId, String body) throws IOException {
+        if (body == null) {
+            throw new IOException("Missing message body");
+        }
+        JsonNode node = objectMapper.readTree(body);
+        if (node == null || !node.isObject()) {
+            throw new IOException("Message body must be a JSON object");
+        }
+
+        Operation operation = Operation.parse(text(node, "operation"));
+        Integer id = whole(node, "id");
+        String name = text(node, "name");
+        Integer age = whole(node, "age");
+        String category = text(node, "category");
+
+        switch (operation) {
+            case CREATE -> {
+                if (name == null || age == null || category == null) {
+                    throw new IllegalArgumentException("All fields (name, age, category) are required.");
+                }
+            }
+            case UPDATE -> {
+                if (id == null) {
+                    throw new IllegalArgumentException("Missing 'id'");
+                }
+                if (name == null && age == null && category == null) {
+                    throw new IllegalArgumentException("At least one of name, age or category is required.");
+                }
+            }
+            case DELETE -> {
+                if (id == null) {
+                    throw new IllegalArgumentException("Missing 'id'");
+                }
+            }
+        }
+        return new WriteRequest(messageId, operation, id, name, age, category);
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    /**
+     * A non-negative whole number, given as a JSON number or a numeric string.
+     */
+    private static Integer whole(JsonNode node, String field) {
+        String value = text(node, field);
+        if (value == null) {
+            return null;
+        }
+        try {
+            double number = Double.parseDouble(value);
+            if (number < 0 || number != Math.rint(number) || number > Integer.MAX_VALUE) {
+                throw new NumberFormatException();
+            }
+            return (int) number;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("'" + field + "' must be a non-negative whole number.");
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package cloud.localstack.initdb;
+
+import java.util.List;
+
+/**
+ * One schema change, applied once and recorded in {@code schema_version}.
+ * <p>
+ * Transactional migrations run all their statements and the version row in one transaction. Statements such as
+ * {@code CREATE INDEX CONCURRENTLY} cannot run inside a transaction block, so non-transactional migrations run
+ * each statement on its own and record the version afterwards; they must be safe to re-run after a failure.
+ */
+public record Migration(int version, String description, boolean transactional, List<String> statements) {
+
+    public Migration {
+        if (version < 1) {
+            throw new IllegalArgumentException("version must be at least 1");
+        }
+        statements = List.copyOf(statements);
+    }
+
+    public static Migration of(int version, String description, String... statements) {
+        return new Migration(version, description, true, List.of(statements));
+    }
+
+    /**
+     * Build an index without blocking writes. An earlier failed attempt leaves an invalid index behind, which
+     * {@code IF NOT EXISTS} would keep, so it is dropped first.
+     */
+    public static Migration concurrentIndex(int version, String description, String indexName, String definition) {
+        return new Migration(version, description, false, List.of(
+                "DROP INDEX CONCURRENTLY IF EXISTS " + indexName,
+                "CREATE INDEX CONCURRENTLY " + indexName + " ON " + definition));
+    }
+
+    /**
+     * Like {@link #concurrentIndex}, for a unique index.
+     */
+    public static Migration concurrentUniqueIndex(int version, String description, String indexName,
+                                                  String definition) {
+        return new Migration(version, description, false, List.of(
+                "DROP INDEX CONCURRENTLY IF EXISTS " + indexName,
+                "CREATE UNIQUE INDEX CONCURRENTLY " + indexName + " ON " + definition));
+    }
+}
@@ -0,0 +1,186 @@
+package cloud.localstack.initdb;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Applies the pending {@link Migration}s in version order and records each one in {@code schema_version}.
+ * <p>
+ * The whole run holds a session-level advisory lock, so concurrent invocations wait for each other and the
+ * later ones find nothing left to do. Waiters poll {@code pg_try_advisory_lock} instead of blocking in
+ * {@code pg_advisory_lock}: a blocked statement keeps its snapshot open, and {@code CREATE INDEX CONCURRENTLY}
+ * in the lock holder waits for every older snapshot, which would deadlock the two runs.
+ */
+public class MigrationRunner {
+
+    /**
+     * Advisory lock key shared by every setup run against the database ("dogs_db" in ASCII).
+     */
+    static final long LOCK_KEY = 0x646f67735f6462L;
+
+    /**
+     * How long {@link #migrate(Connection)} waits for the lock; below the setup function's 300 second timeout.
+     */
+    static final long DEFAULT_LOCK_TIMEOUT_MILLIS = 240_000;
+
+    private static final long LOCK_POLL_MILLIS = 500;
+
+    private final List<Migration> migrations;
+
+    public MigrationRunner(List<Migration> migrations) {
+        for (int i = 1; i < migrations.size(); i++) {
+            if (migrations.get(i).version() <= migrations.get(i - 1).version()) {
+                throw new IllegalArgumentException("Migration versions must be strictly increasing");
+            }
+        }
+        this.migrations = migrations;
+    }
+
+    /**
+     * The outcome of a run: how many migrations were applied and the resulting schema version.
+     */
+    public record Result(int applied, int version) {
+    }
+
+    public Result migrate(Connection conn) throws SQLException {
+        return migrate(conn, DEFAULT_LOCK_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * @param lockTimeoutMillis how long to wait for another run's lock before failing
+     */
+    public Result migrate(Connection conn, long lockTimeoutMillis) throws SQLException {
+        conn.setAutoCommit(true);
+        acquireLock(conn, lockTimeoutMillis);
+        try {
+            createVersionTable(conn);
+            Set<Integer> applied = appliedVersions(conn);
+
+            int count = 0;
+            int version = 0;
+            for (Migration migration : migrations) {
+                if (!applied.contains(migration.version())) {
+                    apply(conn, migration);
+                    count++;
+                }
+                version = migration.version();
+            }
+            for (int appliedVersion : applied) {
+                if (appliedVersion > version) {
+                    System.out.println("Database has migration " + appliedVersion + " which this build does not know");
+                    version = appliedVersion;
+                }
+            }
+            return new Result(count, version);
+        } finally {
+            // closing the session releases the lock as well, so a failed unlock is not fatal
+            try (PreparedStatement unlock = conn.prepareStatement("SELECT pg_advisory_unlock(?)")) {
+                unlock.setLong(1, LOCK_KEY);
+                unlock.execute();
+            } catch (SQLException e) {
+                System.out.println("Could not release the migration lock: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Wait for the advisory lock between short autocommit statements, so this session holds no snapshot while
+     * another run builds its indexes.
+     */
+    private static void acquireLock(Connection conn, long timeoutMillis) throws SQLException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        try (PreparedStatement lock = conn.prepareStatement("SELECT pg_try_advisory_lock(?)")) {
+            lock.setLong(1, LOCK_KEY);
+            boolean waiting = false;
+            while (true) {
+                try (ResultSet rs = lock.executeQuery()) {
+                    rs.next();
+                    if (rs.getBoolean(1)) {
+                        return;
+                    }
+                }
+                if (System.currentTimeMillis() >= deadline) {
+                    throw new SQLException("Timed out waiting for the migration lock held by another setup run");
+                }
+                if (!waiting) {
+                    System.out.println("Another setup run holds the migration lock, waiting");
+                    waiting = true;
+                }
+                try {
+                    Thread.sleep(LOCK_POLL_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new SQLException("Interrupted while waiting for the migration lock", e);
+                }
+            }
+        }
+    }
+
+    private static void createVersionTable(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS schema_version (" +
+                    "version INT PRIMARY KEY, " +
+                    "description VARCHAR(200) NOT NULL, " +
+                    "applied_at TIMESTAMPTZ NOT NULL DEFAULT now())");
+        }
+    }
+
+    private static Set<Integer> appliedVersions(Connection conn) throws SQLException {
+        Set<Integer> versions = new HashSet<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT version FROM schema_version")) {
+            while (rs.next()) {
+                versions.add(rs.getInt(1));
+            }
+        }
+        return versions;
+    }
+
+    private static void apply(Connection conn, Migration migration) throws SQLException {
+        System.out.println("Applying migration " + migration.version() + ": " + migration.description());
+        long start = System.nanoTime();
+
+        if (!migration.transactional()) {
+            execute(conn, migration.statements());
+            record(conn, migration);
+        } else {
+            conn.setAutoCommit(false);
+            try {
+                execute(conn, migration.statements());
+                record(conn, migration);
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+
+        System.out.println("Migration " + migration.version() + " applied in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    private static void execute(Connection conn, List<String> statements) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : statements) {
+                stmt.execute(sql);
+            }
+        }
+    }
+
+    private static void record(Connection conn, Migration migration) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "INSERT INTO schema_version (version, description) VALUES (?, ?)")) {
+            stmt.setInt(1, migration.version());
+            stmt.setString(2, migration.description());
+            stmt.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package cloud.localstack.initdb;
+
+import java.util.List;
+
+/**
+ * The schema history, in order. Never edit or renumber a migration that has been released; add a new one.
+ * <p>
+ * Versions 1 to 5 are the steps the setup function used to run on every invocation. They are written so that
+ * they also succeed on databases set up before {@code schema_version} existed.
+ */
+public final class Migrations {
+
+    public static final List<Migration> ALL = List.of(
+            Migration.of(1, "Create dogs table",
+                    "CREATE TABLE IF NOT EXISTS dogs (" +
+                            "id SERIAL PRIMARY KEY, " +
+                            "name VARCHAR(100), " +
+                            "age INT, " +
+                            "category VARCHAR(50))"),
+
+            // Row version used for optimistic concurrency (ETag / If-Match) by put-dog
+            Migration.of(2, "Add dogs.version",
+                    "ALTER TABLE dogs ADD COLUMN IF NOT EXISTS version INT NOT NULL DEFAULT 0"),
+
+            // Notify warm get-dog containers so they can evict changed dogs from their cache
+            Migration.of(3, "Notify dog_changes on update and delete",
+                    "CREATE OR REPLACE FUNCTION notify_dog_change() RETURNS trigger AS $$ " +
+                            "BEGIN " +
+                            "PERFORM pg_notify('dog_changes', OLD.id::text); " +
+                            "RETURN NULL; " +
+                            "END; $$ LANGUAGE plpgsql",
+                    "CREATE OR REPLACE TRIGGER dogs_notify_change " +
+                            "AFTER UPDATE OR DELETE ON dogs " +
+                            "FOR EACH ROW EXECUTE FUNCTION notify_dog_change()"),
+
+            Migration.of(4, "Create token_user for IAM authentication",
+                    "DO $$ BEGIN " +
+                            "IF NOT EXISTS (SELECT FROM pg_roles WHERE rolname = 'token_user') THEN " +
+                            "CREATE USER token_user; " +
+                            "END IF; " +
+                            "END $$",
+                    "GRANT rds_iam TO token_user",
+                    "ALTER USER token_user WITH LOGIN",
+                    "GRANT ALL PRIVILEGES ON ALL TABLES IN SCHEMA public TO token_user",
+                    "ALTER DEFAULT PRIVILEGES IN SCHEMA public GRANT USAGE, SELECT, UPDATE ON SEQUENCES TO token_user",
+                    "GRANT USAGE, SELECT, UPDATE ON SEQUENCE dogs_id_seq TO token_user"),
+
+            Migration.of(5, "Grant lambda_user access",
+                    "GRANT ALL PRIVILEGES ON ALL TABLES IN SCHEMA public TO lambda_user",
+                    "ALTER DEFAULT PRIVILEGES IN SCHEMA public GRANT USAGE, SELECT, UPDATE ON SEQUENCES TO lambda_user",
+                    "GRANT USAGE, SELECT, UPDATE ON SEQUENCE dogs_id_seq TO lambda_user"),
+
+            // Category filters of list-dogs, alone and with an age range
+            Migration.concurrentIndex(6, "Index dogs by category",
+                    "dogs_category_idx", "dogs (category)"),
+            Migration.concurrentIndex(7, "Index dogs by category and age",
+                    "dogs_category_age_idx", "dogs (category, age)"),
+
+            // Per-category counts for GET /dogs/stats, kept current by statement-level triggers that apply
+            // one aggregated delta per category and statement, so bulk inserts do not update it row by row.
+            // The lock keeps writes out until the backfill and the triggers are committed together.
+            Migration.of(8, "Maintain dog_category_stats",
+                    "LOCK TABLE dogs IN SHARE ROW EXCLUSIVE MODE",
+                    "CREATE TABLE IF NOT EXISTS dog_category_stats (" +
+                            "category VARCHAR(50) PRIMARY KEY, " +
+                            "dog_count BIGINT NOT NULL, " +
+                            "age_sum BIGINT NOT NULL, " +
+                            "age_count BIGINT NOT NULL)",
+                    "CREATE OR REPLACE FUNCTION maintain_dog_category_stats() RETURNS trigger AS $$ " +
+                            "BEGIN " +
+                            // updates that keep every row's category and age, such as renames, change nothing
+                            "IF TG_OP = 'UPDATE' AND NOT EXISTS (SELECT 1 FROM old_rows o " +
+                            "LEFT JOIN new_rows n ON n.id = o.id WHERE n.id IS NULL " +
+                            "OR o.category IS DISTINCT FROM n.category OR o.age IS DISTINCT FROM n.age) THEN " +
+                            "RETURN NULL; " +
+                            "END IF; " +
+                            "IF TG_OP IN ('UPDATE', 'DELETE') THEN " +
+                            "UPDATE dog_category_stats s SET dog_count = s.dog_count - d.dogs, " +
+                            "age_sum = s.age_sum - d.age_sum, age_count = s.age_count - d.ages " +
+                            "FROM (SELECT category, count(*) AS dogs, COALESCE(sum(age), 0) AS age_sum, " +
+                            "count(age) AS ages FROM old_rows WHERE category IS NOT NULL GROUP BY category) d " +
+                            "WHERE s.category = d.category; " +
+                            "END IF; " +
+                            "IF TG_OP IN ('INSERT', 'UPDATE') THEN " +
+                            "INSERT INTO dog_category_stats AS s (category, dog_count, age_sum, age_count) " +
+                            "SELECT category, count(*), COALESCE(sum(age), 0), count(age) " +
+                            "FROM new_rows WHERE category IS NOT NULL GROUP BY category " +
+                            "ON CONFLICT (category) DO UPDATE SET dog_count = s.dog_count + EXCLUDED.dog_count, " +
+                            "age_sum = s.age_sum + EXCLUDED.age_sum, age_count = s.age_count + EXCLUDED.age_count; " +
+                            "END IF; " +
+                            "RETURN NULL; " +
+                            "END; $$ LANGUAGE plpgsql",
+                    "CREATE OR REPLACE TRIGGER dogs_stats_insert AFTER INSERT ON dogs " +
+                            "REFERENCING NEW TABLE AS new_rows " +
+                            "FOR EACH STATEMENT EXECUTE FUNCTION maintain_dog_category_stats()",
+                    "CREATE OR REPLACE TRIGGER dogs_stats_update AFTER UPDATE ON dogs " +
+                            "REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows " +
+                            "FOR EACH STATEMENT EXECUTE FUNCTION maintain_dog_category_stats()",
+                    "CREATE OR REPLACE TRIGGER dogs_stats_delete AFTER DELETE ON dogs " +
+                            "REFERENCING OLD TABLE AS old_rows " +
+                            "FOR EACH STATEMENT EXECUTE FUNCTION maintain_dog_category_stats()",
+                    // the triggers run as the writing user
+                    "GRANT SELECT, INSERT, UPDATE, DELETE ON dog_category_stats TO lambda_user, token_user",
+                    "DELETE FROM dog_category_stats",
+                    "INSERT INTO dog_category_stats (category, dog_count, age_sum, age_count) " +
+                            "SELECT category, count(*), COALESCE(sum(age), 0), count(age) " +
+                            "FROM dogs WHERE category IS NOT NULL GROUP BY category"),
+
+            // The SQS message that created a dog, so batch-write can insert a redelivered message again
+            // without creating a second dog. Dogs created through the API have none.
+            Migration.of(9, "Add dogs.message_id",
+                    "ALTER TABLE dogs ADD COLUMN IF NOT EXISTS message_id VARCHAR(100)"),
+            Migration.concurrentUniqueIndex(10, "Index dogs by message_id",
+                    "dogs_message_id_idx", "dogs (message_id)")
+    );
+
+    private Migrations() {
+    }
+}
@@ -1,54 +1,174 @@
 package cloud.localstack.deletedog;
 
+import cloud.localstack.db.apigw.ApiInvocation;
+import cloud.localstack.db.apigw.ApiRequest;
+import cloud.localstack.db.apigw.ApiResponse;
+import cloud.localstack.db.lifecycle.Priming;
+import cloud.localstack.db.lifecycle.SnapStartLifecycle;
+import cloud.localstack.db.pool.ConnectionPool;
+import cloud.localstack.db.pool.PoolConfig;
+import cloud.localstack.db.pool.SessionLsn;
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
-import software.amazon.awssdk.services.rdsdata.RdsDataClient;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 
-import java.sql.Connection;
+import java.io.IOException;
+import java.io.StringWriter;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
+/**
+ * Deletes one dog by path id ({@code DELETE /dogs/{id}}), or many dogs listed in the body of
+ * {@code DELETE /dogs} as {@code {"ids":[1,2,3]}} or a plain array, reporting for each id whether it existed.
+ */
 public class DeleteDogHandler implements RequestHandler<Map<String, Object>, Map<String, Object>> {
 
+    static final String FUNCTION_NAME = "delete-dog";
+    static final int MAX_BULK_IDS = 500;
+
+    private static final JsonFactory jsonFactory = new JsonFactory();
     private static final String SECRET_ARN = System.getenv("SECRET_ARN");
     private static final String REGION = System.getenv("AWS_REGION");
     private static final String DATABASE_NAME = System.getenv("DATABASE_NAME");
-    private static Connection connection;
     private static final String HOST = System.getenv("HOST");
 
-    private final RdsDataClient rdsDataClient;
+    private static final String BULK_DELETE_QUERY = "DELETE FROM dogs WHERE id = ANY(?) RETURNING id";
 
-    public DeleteDogHandler() {
-        this.rdsDataClient = RdsDataClient.create();
-    }
+    private static final ConnectionPool pool = new ConnectionPool(PoolConfig.fromEnv(),
+            () -> DatabaseUtil.getConnectionWithUserPassword(REGION, SECRET_ARN, HOST, DATABASE_NAME));
 
-    {
-        connection = DatabaseUtil.getConnectionWithUserPassword(REGION, SECRET_ARN, HOST, DATABASE_NAME);
+    static {
+        pool.warmUp();
+        SnapStartLifecycle.getInstance()
+                .register(pool)
+                .onPrime(Priming.postgresDriver())
+                .onPrime(Priming.apiEventCodec());
     }
 
     @Override
     public Map<String, Object> handleRequest(Map<String, Object> event, Context context) {
+        return ApiInvocation.handle(FUNCTION_NAME, event, this::handle);
+    }
+
+    /**
+     * Shared by this handler and {@link DeleteDogStreamHandler}.
+     */
+    ApiResponse handle(ApiRequest request) {
         try {
-            Map<String, Object> pathParameters = (Map<String, Object>) event.get("pathParameters");
-            if (pathParameters == null || !pathParameters.containsKey("id")) {
-                return Map.of("statusCode", 400, "body", "Missing 'id' in path parameters");
+            String pathId = request.pathParameter("id");
+            if (pathId == null && request.body() != null && !request.body().isBlank()) {
+                return deleteDogs(readIds(request.body()));
+            }
+            if (pathId == null) {
+                return ApiResponse.of(400, "Missing 'id' in path parameters");
             }
-            int dogId = Integer.parseInt((String) pathParameters.get("id"));
+            int dogId = Integer.parseInt(pathId);
 
             // Delete dog record
             String query = "DELETE FROM Dogs WHERE id = ?";
-            PreparedStatement stmt = connection.prepareStatement(query);
-            stmt.setInt(1, dogId);
-
-            int rowsAffected = stmt.executeUpdate();
-
-            stmt.close();
+            int rowsAffected = pool.withConnection(connection -> {
+                try (PreparedStatement stmt = connection.prepareStatement(query)) {
+                    stmt.setInt(1, dogId);
+                    return stmt.executeUpdate();
+                }
+            });
 
             System.out.println("Dog deleted successfully! Rows affected: " + rowsAffected);
 
-            return Map.of("statusCode", 200, "body", "Dog deleted successfully!");
+            return SessionLsn.tag(ApiResponse.of(200, "Dog deleted successfully!"), pool);
+        } catch (IllegalArgumentException e) {
+            return ApiResponse.of(400, "Invalid request: " + e.getMessage());
         } catch (Exception e) {
-            return Map.of("statusCode", 500, "body", "Error processing request: " + e.getMessage());
+            return ApiResponse.of(500, "Error processing request: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Delete all ids with one statement; {@code RETURNING} tells which of them existed.
+     */
+    private ApiResponse deleteDogs(List<Integer> ids) throws SQLException, IOException {
+        Set<Integer> deleted = pool.withConnection(connection -> {
+            try (PreparedStatement stmt = connection.prepareStatement(BULK_DELETE_QUERY)) {
+                stmt.setArray(1, connection.createArrayOf("integer", ids.toArray()));
+                Set<Integer> found = new HashSet<>(ids.size() * 2);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        found.add(rs.getInt(1));
+                    }
+                }
+                return found;
+            }
+        });
+
+        System.out.println("Bulk delete finished! Dogs deleted: " + deleted.size() + " of " + ids.size());
+
+        StringWriter out = new StringWriter(ids.size() * 32);
+        try (JsonGenerator json = jsonFactory.createGenerator(out)) {
+            json.writeStartObject();
+            json.writeNumberField("deleted", deleted.size());
+            json.writeArrayFieldStart("results");
+            for (Integer id : ids) {
+                json.writeStartObject();
+                json.writeNumberField("id", id);
+                json.writeBooleanField("found", deleted.contains(id));
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+        return SessionLsn.tag(ApiResponse.json(200, out.toString()), pool);
+    }
+
+    /**
+     * Ids from {@code {"ids":[...]}} or a root-level array; numbers and numeric strings are accepted and
+     * duplicates dropped.
+     */
+    static List<Integer> readIds(String body) throws IOException {
+        Set<Integer> ids = new LinkedHashSet<>();
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_OBJECT) {
+                token = null;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    JsonToken value = parser.nextToken();
+                    if (field.equals("ids")) {
+                        token = value;
+                        break;
+                    }
+                    parser.skipChildren();
+                }
+            }
+            if (token != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Body must be an array of ids or an object with an 'ids' array");
+            }
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null || !token.isScalarValue() || token == JsonToken.VALUE_NULL) {
+                    throw new IllegalArgumentException("'ids' must only contain whole numbers");
+                }
+                try {
+                    ids.add(Integer.parseInt(parser.getValueAsString().trim()));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("'ids' must only contain whole numbers");
+                }
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Body is not valid JSON", e);
+        }
+        if (ids.isEmpty() || ids.size() > MAX_BULK_IDS) {
+            throw new IllegalArgumentException("'ids' must list between 1 and " + MAX_BULK_IDS + " ids");
         }
+        return new ArrayList<>(ids);
     }
 }
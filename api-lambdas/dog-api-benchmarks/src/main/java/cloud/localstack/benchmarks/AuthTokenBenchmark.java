@@ -0,0 +1,68 @@
+package cloud.localstack.benchmarks;
+
+import cloud.localstack.db.auth.IamAuthTokenProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.rds.RdsUtilities;
+import software.amazon.awssdk.services.rds.model.GenerateAuthenticationTokenRequest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RDS IAM auth token generation. Signing happens locally, so no AWS endpoint is needed; the credentials
+ * are fixed test values.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms512m", "-Xmx512m", "-Daws.accessKeyId=test", "-Daws.secretAccessKey=test"})
+@State(Scope.Benchmark)
+public class AuthTokenBenchmark {
+
+    private static final String HOST = "localhost.localstack.cloud";
+    private static final int PORT = 4510;
+    private static final String USER = "token_user";
+    private static final String REGION = "us-east-1";
+
+    private RdsUtilities rdsUtilities;
+    private GenerateAuthenticationTokenRequest tokenRequest;
+
+    @Setup
+    public void setUp() {
+        rdsUtilities = RdsUtilities.builder()
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("test", "test")))
+                .region(Region.of(REGION))
+                .build();
+        tokenRequest = GenerateAuthenticationTokenRequest.builder()
+                .username(USER)
+                .hostname(HOST)
+                .port(PORT)
+                .build();
+        IamAuthTokenProvider.getInstance().getToken(HOST, PORT, USER, REGION);
+    }
+
+    /**
+     * What every connection paid before tokens were cached.
+     */
+    @Benchmark
+    public String generateToken() {
+        return rdsUtilities.generateAuthenticationToken(tokenRequest);
+    }
+
+    @Benchmark
+    public String cachedToken() {
+        return IamAuthTokenProvider.getInstance().getToken(HOST, PORT, USER, REGION);
+    }
+}
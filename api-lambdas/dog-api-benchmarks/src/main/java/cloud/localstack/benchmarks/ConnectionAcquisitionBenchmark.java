@@ -0,0 +1,72 @@
+package cloud.localstack.benchmarks;
+
+import cloud.localstack.db.pool.ConnectionPool;
+import cloud.localstack.db.pool.PoolConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of getting a usable connection: a fresh {@code DriverManager} connection, as the handlers used to open
+ * per request, against a borrow from {@link ConnectionPool} with and without validation on borrow.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms512m", "-Xmx512m"})
+@State(Scope.Benchmark)
+public class ConnectionAcquisitionBenchmark {
+
+    private ConnectionPool pool;
+    private ConnectionPool validatingPool;
+
+    @Setup
+    public void setUp() {
+        LocalDatabase.prepareSchema();
+        PoolConfig defaults = PoolConfig.defaults();
+        pool = new ConnectionPool(defaults, LocalDatabase::connect);
+        // a zero bypass window validates the connection on every borrow
+        validatingPool = new ConnectionPool(defaults.withValidationBypass(Duration.ZERO), LocalDatabase::connect);
+        pool.warmUp();
+        validatingPool.warmUp();
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.evictIdle();
+        validatingPool.evictIdle();
+    }
+
+    @Benchmark
+    public void openUnpooled() throws SQLException {
+        LocalDatabase.connect().close();
+    }
+
+    @Benchmark
+    public void borrowPooled() throws SQLException {
+        try (Connection connection = pool.getConnection()) {
+            connection.getAutoCommit();
+        }
+    }
+
+    @Benchmark
+    public void borrowPooledValidated() throws SQLException {
+        try (Connection connection = validatingPool.getConnection()) {
+            connection.getAutoCommit();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package cloud.localstack.benchmarks;
+
+import cloud.localstack.db.apigw.ApiEventCodec;
+import cloud.localstack.db.apigw.ApiRequest;
+import cloud.localstack.db.apigw.ApiResponse;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading an API Gateway event and writing the response: the {@code Map} route taken by the
+ * {@code RequestHandler}s against the streaming codec used by the {@code *StreamHandler}s.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms512m", "-Xmx512m"})
+@State(Scope.Benchmark)
+public class EventParsingBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private byte[] putEvent;
+    private ApiResponse response;
+
+    @Setup
+    public void setUp() {
+        putEvent = SampleEvents.bytes(SampleEvents.putDog(1));
+        response = ApiResponse.of(200, "Dog updated successfully!").withHeader("ETag", "\"3\"");
+    }
+
+    @Benchmark
+    public ApiRequest readEventAsMap() throws IOException {
+        Map<String, Object> event = objectMapper.readValue(putEvent, new TypeReference<Map<String, Object>>() {});
+        return ApiRequest.fromEvent(event);
+    }
+
+    @Benchmark
+    public ApiRequest readEventStreaming() throws IOException {
+        return ApiEventCodec.readRequest(new ByteArrayInputStream(putEvent));
+    }
+
+    @Benchmark
+    public byte[] writeResponseFromMap() throws IOException {
+        return objectMapper.writeValueAsBytes(response.toMap());
+    }
+
+    @Benchmark
+    public byte[] writeResponseStreaming() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(128);
+        ApiEventCodec.writeResponse(out, response);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,140 @@
+package cloud.localstack.benchmarks;
+
+import cloud.localstack.deletedog.DeleteDogHandler;
+import cloud.localstack.getdog.GetDogHandler;
+import cloud.localstack.listdogs.ListDogsHandler;
+import cloud.localstack.postdog.AddDogHandler;
+import cloud.localstack.putdog.UpdateDogHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end {@code handleRequest} of every dog handler, with an already deserialized event as the runtime
+ * passes it. The handlers read their configuration from the same environment variables as the deployed
+ * functions, so those must be exported before running. Each handler is initialized in its own state, so
+ * {@code HandlerBenchmark.addDog} only needs the post-dog variables.
+ * <p>
+ * Requests repeat, so get-dog measures the cached path after the first invocation, put-dog keeps bumping the
+ * version of one dog and delete-dog targets an id that does not exist.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+// phases are still timed, only the EMF output is turned off
+@Fork(value = 2, jvmArgsAppend = {"-Xms512m", "-Xmx512m", "-Dmetrics.enabled=false"})
+public class HandlerBenchmark {
+
+    private static final long EXISTING_ID = 1;
+    private static final long MISSING_ID = Integer.MAX_VALUE;
+
+    @State(Scope.Benchmark)
+    public static class GetDog {
+        GetDogHandler handler;
+        Map<String, Object> event;
+
+        @Setup
+        public void setUp() {
+            handler = new GetDogHandler();
+            event = SampleEvents.asMap(SampleEvents.getDog(EXISTING_ID));
+            checkConfigured(handler.handleRequest(event, null));
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class ListDogs {
+        ListDogsHandler handler;
+        Map<String, Object> event;
+
+        @Setup
+        public void setUp() {
+            handler = new ListDogsHandler();
+            event = SampleEvents.asMap(SampleEvents.listDogs());
+            checkConfigured(handler.handleRequest(event, null));
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class AddDog {
+        AddDogHandler handler;
+        Map<String, Object> event;
+
+        @Setup
+        public void setUp() {
+            handler = new AddDogHandler();
+            event = SampleEvents.asMap(SampleEvents.postDog());
+            checkConfigured(handler.handleRequest(event, null));
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class UpdateDog {
+        UpdateDogHandler handler;
+        Map<String, Object> event;
+
+        @Setup
+        public void setUp() {
+            handler = new UpdateDogHandler();
+            event = SampleEvents.asMap(SampleEvents.putDog(EXISTING_ID));
+            checkConfigured(handler.handleRequest(event, null));
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class DeleteDog {
+        DeleteDogHandler handler;
+        Map<String, Object> event;
+
+        @Setup
+        public void setUp() {
+            handler = new DeleteDogHandler();
+            event = SampleEvents.asMap(SampleEvents.deleteDog(MISSING_ID));
+            checkConfigured(handler.handleRequest(event, null));
+        }
+    }
+
+    /**
+     * Fail the run instead of measuring the error path when the handler cannot reach its database.
+     */
+    private static void checkConfigured(Map<String, Object> response) {
+        if (((Integer) response.get("statusCode")) >= 500) {
+            throw new IllegalStateException("Handler is not configured for benchmarking: " + response.get("body"));
+        }
+    }
+
+    @Benchmark
+    public Map<String, Object> getDog(GetDog state) {
+        return state.handler.handleRequest(state.event, null);
+    }
+
+    @Benchmark
+    public Map<String, Object> listDogs(ListDogs state) {
+        return state.handler.handleRequest(state.event, null);
+    }
+
+    @Benchmark
+    public Map<String, Object> addDog(AddDog state) {
+        return state.handler.handleRequest(state.event, null);
+    }
+
+    @Benchmark
+    public Map<String, Object> updateDog(UpdateDog state) {
+        return state.handler.handleRequest(state.event, null);
+    }
+
+    @Benchmark
+    public Map<String, Object> deleteDog(DeleteDog state) {
+        return state.handler.handleRequest(state.event, null);
+    }
+}
@@ -0,0 +1,105 @@
+package cloud.localstack.benchmarks;
+
+import cloud.localstack.db.apigw.DogPayload;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request body parsing and response serialization as done by the handlers: a single dog (get-dog),
+ * a page of dogs (list-dogs) and a POST/PUT body.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms512m", "-Xmx512m"})
+@State(Scope.Benchmark)
+public class JsonSerializationBenchmark {
+
+    @Param({"50", "500"})
+    public int pageSize;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private Map<String, Object> dog;
+    private List<Map<String, Object>> page;
+
+    @Setup
+    public void setUp() {
+        dog = dog(1);
+        page = new ArrayList<>(pageSize);
+        for (int i = 1; i <= pageSize; i++) {
+            page.add(dog(i));
+        }
+    }
+
+    @Benchmark
+    public Map<String, Object> parseBodyAsMap() throws IOException {
+        return objectMapper.readValue(SampleEvents.DOG_JSON, new TypeReference<Map<String, Object>>() {});
+    }
+
+    @Benchmark
+    public DogPayload parseBodyStreaming() throws IOException {
+        return DogPayload.parse(SampleEvents.DOG_JSON);
+    }
+
+    @Benchmark
+    public String writeDog() throws IOException {
+        return objectMapper.writeValueAsString(dog);
+    }
+
+    @Benchmark
+    public String writePageFromMaps() throws IOException {
+        return objectMapper.writeValueAsString(Map.of("items", page));
+    }
+
+    @Benchmark
+    public String writePageStreaming() throws IOException {
+        StringWriter out = new StringWriter(pageSize * 64);
+        try (JsonGenerator json = jsonFactory.createGenerator(out)) {
+            json.writeStartObject();
+            json.writeArrayFieldStart("items");
+            for (Map<String, Object> row : page) {
+                json.writeStartObject();
+                json.writeNumberField("id", (Long) row.get("id"));
+                json.writeStringField("name", (String) row.get("name"));
+                json.writeNumberField("age", (Long) row.get("age"));
+                json.writeStringField("category", (String) row.get("category"));
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+        return out.toString();
+    }
+
+    private static Map<String, Object> dog(long id) {
+        Map<String, Object> dog = new HashMap<>();
+        dog.put("id", id);
+        dog.put("name", "Dog " + id);
+        dog.put("age", id % 15);
+        dog.put("category", "Boofer");
+        return dog;
+    }
+}
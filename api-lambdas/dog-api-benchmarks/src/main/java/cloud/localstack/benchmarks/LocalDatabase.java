@@ -0,0 +1,63 @@
+package cloud.localstack.benchmarks;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * The PostgreSQL instance used by the JDBC benchmarks, configured with {@code BENCH_JDBC_URL},
+ * {@code BENCH_DB_USER} and {@code BENCH_DB_PASSWORD}. Defaults match
+ * {@code docker run -p 5432:5432 -e POSTGRES_PASSWORD=postgres postgres:16}.
+ */
+final class LocalDatabase {
+
+    static final int SEED_ROWS = 1000;
+
+    private static final String JDBC_URL = envOrDefault("BENCH_JDBC_URL", "jdbc:postgresql://localhost:5432/postgres");
+    private static final String USER = envOrDefault("BENCH_DB_USER", "postgres");
+    private static final String PASSWORD = envOrDefault("BENCH_DB_PASSWORD", "postgres");
+
+    private LocalDatabase() {
+    }
+
+    static Connection connect() {
+        try {
+            return DriverManager.getConnection(JDBC_URL, USER, PASSWORD);
+        } catch (SQLException e) {
+            throw new RuntimeException("Could not connect to the benchmark database at " + JDBC_URL, e);
+        }
+    }
+
+    /**
+     * Create the dogs table as the db-setup function does and seed it, so every fork starts from the same data.
+     */
+    static void prepareSchema() {
+        try (Connection connection = connect(); Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS dogs (" +
+                    "id SERIAL PRIMARY KEY, " +
+                    "name VARCHAR(100), " +
+                    "age INT, " +
+                    "category VARCHAR(50))");
+            stmt.executeUpdate("ALTER TABLE dogs ADD COLUMN IF NOT EXISTS version INT NOT NULL DEFAULT 0");
+
+            try (ResultSet rs = stmt.executeQuery("SELECT count(*) FROM dogs")) {
+                rs.next();
+                if (rs.getLong(1) >= SEED_ROWS) {
+                    return;
+                }
+            }
+            stmt.executeUpdate("INSERT INTO dogs (name, age, category) " +
+                    "SELECT 'Dog ' || g, g % 15, (ARRAY['Boofer', 'Yipper', 'Woofer'])[g % 3 + 1] " +
+                    "FROM generate_series(1, " + SEED_ROWS + ") AS g");
+        } catch (SQLException e) {
+            throw new RuntimeException("Could not prepare the benchmark schema", e);
+        }
+    }
+
+    private static String envOrDefault(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isBlank() ? defaultValue : value;
+    }
+}
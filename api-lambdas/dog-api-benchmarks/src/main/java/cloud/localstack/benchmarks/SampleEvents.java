@@ -0,0 +1,92 @@
+package cloud.localstack.benchmarks;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * API Gateway HTTP API (payload v2) events shaped like the ones the deployed functions receive, including the
+ * request context and headers the handlers never read.
+ */
+final class SampleEvents {
+
+    static final String DOG_JSON = "{\"name\":\"Buddy\",\"age\":\"4\",\"category\":\"Boofer\"}";
+    static final String DOG_WITH_ID_JSON = "{\"id\":\"%d\",\"name\":\"Buddy\",\"age\":\"4\",\"category\":\"Boofer\"}";
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private SampleEvents() {
+    }
+
+    static String event(String method, String path, String pathParameters, String queryStringParameters, String body) {
+        return "{"
+                + "\"version\":\"2.0\","
+                + "\"routeKey\":\"" + method + " " + path + "\","
+                + "\"rawPath\":\"/dev" + path + "\","
+                + "\"rawQueryString\":\"\","
+                + "\"headers\":{"
+                + "\"accept\":\"application/json\","
+                + "\"accept-encoding\":\"gzip, deflate, br\","
+                + "\"content-type\":\"application/json\","
+                + "\"host\":\"abc123.execute-api.us-east-1.amazonaws.com\","
+                + "\"user-agent\":\"curl/8.4.0\","
+                + "\"x-amzn-trace-id\":\"Root=1-65f0a1b2-0123456789abcdef01234567\","
+                + "\"x-forwarded-for\":\"203.0.113.10\","
+                + "\"x-forwarded-port\":\"443\","
+                + "\"x-forwarded-proto\":\"https\"},"
+                + "\"queryStringParameters\":" + queryStringParameters + ","
+                + "\"pathParameters\":" + pathParameters + ","
+                + "\"requestContext\":{"
+                + "\"accountId\":\"000000000000\","
+                + "\"apiId\":\"abc123\","
+                + "\"domainName\":\"abc123.execute-api.us-east-1.amazonaws.com\","
+                + "\"http\":{\"method\":\"" + method + "\",\"path\":\"/dev" + path + "\","
+                + "\"protocol\":\"HTTP/1.1\",\"sourceIp\":\"203.0.113.10\",\"userAgent\":\"curl/8.4.0\"},"
+                + "\"requestId\":\"JKJaXmPLvHcESHA=\","
+                + "\"routeKey\":\"" + method + " " + path + "\","
+                + "\"stage\":\"dev\","
+                + "\"time\":\"12/Mar/2024:19:03:58 +0000\","
+                + "\"timeEpoch\":1710270238000},"
+                + "\"body\":" + (body == null ? "null" : objectMapper.valueToTree(body).toString()) + ","
+                + "\"isBase64Encoded\":false}";
+    }
+
+    static String getDog(long id) {
+        return event("GET", "/dogs/{id}", "{\"id\":\"" + id + "\"}", "null", null);
+    }
+
+    static String listDogs() {
+        return event("GET", "/dogs", "null", "{\"category\":\"Boofer\",\"limit\":\"50\"}", null);
+    }
+
+    static String postDog() {
+        return event("POST", "/dogs", "null", "null", DOG_JSON);
+    }
+
+    static String putDog(long id) {
+        return event("PUT", "/dogs", "null", "null", String.format(DOG_WITH_ID_JSON, id));
+    }
+
+    static String deleteDog(long id) {
+        return event("DELETE", "/dogs/{id}", "{\"id\":\"" + id + "\"}", "null", null);
+    }
+
+    static byte[] bytes(String event) {
+        return event.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The event as a {@code RequestHandler} receives it after the runtime deserialized it.
+     */
+    static Map<String, Object> asMap(String event) {
+        try {
+            return objectMapper.readValue(event, new TypeReference<Map<String, Object>>() {});
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package cloud.localstack.benchmarks;
+
+import cloud.localstack.db.pool.ConnectionPool;
+import cloud.localstack.db.pool.PoolConfig;
+import cloud.localstack.db.pool.StatementMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Statement preparation and execution on an open connection to the local PostgreSQL, separating driver-side
+ * preparation from the round trip, and the same query through the pool's statement cache in each
+ * {@link StatementMode}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms512m", "-Xmx512m"})
+@State(Scope.Thread)
+public class StatementBenchmark {
+
+    private static final String SELECT_DOG = "SELECT id, name, age, category, version FROM dogs WHERE id = ?";
+
+    @Param({"PROXY_SAFE", "DIRECT"})
+    public StatementMode mode;
+
+    private Connection connection;
+    private ConnectionPool pool;
+
+    @Setup
+    public void setUp() {
+        LocalDatabase.prepareSchema();
+        connection = LocalDatabase.connect();
+        pool = new ConnectionPool(PoolConfig.defaults().withStatementMode(mode), LocalDatabase::connect);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+        pool.evictIdle();
+        System.out.println(mode + ": " + pool.pinningStats());
+    }
+
+    @Benchmark
+    public PreparedStatement prepareOnly() throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(SELECT_DOG)) {
+            stmt.setInt(1, randomId());
+            return stmt;
+        }
+    }
+
+    @Benchmark
+    public String prepareAndExecute() throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(SELECT_DOG)) {
+            stmt.setInt(1, randomId());
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getString(2) : null;
+            }
+        }
+    }
+
+    @Benchmark
+    public String prepareAndExecutePooled() throws SQLException {
+        return pool.withConnection(pooled -> {
+            try (PreparedStatement stmt = pooled.prepareStatement(SELECT_DOG)) {
+                stmt.setInt(1, randomId());
+                try (ResultSet rs = stmt.executeQuery()) {
+                    return rs.next() ? rs.getString(2) : null;
+                }
+            }
+        });
+    }
+
+    private static int randomId() {
+        return ThreadLocalRandom.current().nextInt(1, LocalDatabase.SEED_ROWS + 1);
+    }
+}
@@ -0,0 +1,120 @@
+package cloud.localstack.db.apigw;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads API Gateway proxy events and writes proxy responses with Jackson's streaming API, for
+ * {@code RequestStreamHandler}s. Only the fields in {@link ApiRequest} are materialized; everything else in
+ * the event (request context, multi-value headers, ...) is skipped without building objects.
+ */
+public final class ApiEventCodec {
+
+    private static final JsonFactory jsonFactory = new JsonFactory();
+
+    private ApiEventCodec() {
+    }
+
+    public static ApiRequest readRequest(InputStream input) throws IOException {
+        String method = null;
+        Map<String, String> pathParameters = Map.of();
+        Map<String, String> queryStringParameters = Map.of();
+        Map<String, String> headers = Map.of();
+        String body = null;
+
+        try (JsonParser parser = jsonFactory.createParser(input)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("API Gateway event must be a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "httpMethod" -> method = method != null ? method : parser.getValueAsString();
+                    case "requestContext" -> method = readMethodFromContext(parser, method);
+                    case "pathParameters" -> pathParameters = readStringMap(parser, false);
+                    case "queryStringParameters" -> queryStringParameters = readStringMap(parser, false);
+                    case "headers" -> headers = readStringMap(parser, true);
+                    case "body" -> body = parser.getValueAsString();
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+        return new ApiRequest(method, pathParameters, queryStringParameters, headers, body);
+    }
+
+    public static void writeResponse(OutputStream output, ApiResponse response) throws IOException {
+        try (JsonGenerator json = jsonFactory.createGenerator(output)) {
+            json.writeStartObject();
+            json.writeNumberField("statusCode", response.statusCode());
+            if (!response.headers().isEmpty()) {
+                json.writeObjectFieldStart("headers");
+                for (Map.Entry<String, String> header : response.headers().entrySet()) {
+                    json.writeStringField(header.getKey(), header.getValue());
+                }
+                json.writeEndObject();
+            }
+            json.writeStringField("body", response.body());
+            if (response.base64Encoded()) {
+                json.writeBooleanField("isBase64Encoded", true);
+            }
+            json.writeEndObject();
+        }
+    }
+
+    /**
+     * HTTP API (v2) events carry the method in requestContext.http.method.
+     */
+    private static String readMethodFromContext(JsonParser parser, String current) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return current;
+        }
+        String method = current;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if (field.equals("http") && parser.currentToken() == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String httpField = parser.currentName();
+                    parser.nextToken();
+                    if (httpField.equals("method")) {
+                        method = parser.getValueAsString();
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return method;
+    }
+
+    private static Map<String, String> readStringMap(JsonParser parser, boolean lowerCaseKeys) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return Map.of();
+        }
+        Map<String, String> values = new HashMap<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String key = parser.currentName();
+            parser.nextToken();
+            if (parser.currentToken().isScalarValue() && parser.currentToken() != JsonToken.VALUE_NULL) {
+                values.put(lowerCaseKeys ? key.toLowerCase(Locale.ROOT) : key, parser.getValueAsString());
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return values;
+    }
+}
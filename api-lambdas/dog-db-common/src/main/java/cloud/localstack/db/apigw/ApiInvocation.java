@@ -0,0 +1,72 @@
+package cloud.localstack.db.apigw;
+
+import cloud.localstack.db.metrics.InvocationMetrics;
+import cloud.localstack.db.metrics.Phase;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Runs one API Gateway invocation of a handler's {@code handle(ApiRequest)} with {@link InvocationMetrics}
+ * around it, for both the {@code RequestHandler} and the {@code RequestStreamHandler} entry points. Responses
+ * pass through {@link ResponseEncoder} on the way out.
+ */
+public final class ApiInvocation {
+
+    private ApiInvocation() {
+    }
+
+    public static Map<String, Object> handle(String handlerName, Map<String, Object> event,
+                                             Function<ApiRequest, ApiResponse> handler) {
+        InvocationMetrics metrics = InvocationMetrics.begin(handlerName);
+        int statusCode = 500;
+        try {
+            ApiRequest request = ApiRequest.fromEvent(event);
+            metrics.method(request.method());
+            ApiResponse response = encode(request, handler.apply(request));
+            statusCode = response.statusCode();
+            return response.toMap();
+        } finally {
+            metrics.finish(statusCode);
+        }
+    }
+
+    public static void handle(String handlerName, InputStream input, OutputStream output,
+                              Function<ApiRequest, ApiResponse> handler) throws IOException {
+        InvocationMetrics metrics = InvocationMetrics.begin(handlerName);
+        int statusCode = 500;
+        try {
+            long start = System.nanoTime();
+            ApiRequest request = ApiEventCodec.readRequest(input);
+            InvocationMetrics.record(Phase.SERIALIZATION, System.nanoTime() - start);
+            metrics.method(request.method());
+
+            ApiResponse response = encode(request, handler.apply(request));
+            statusCode = response.statusCode();
+
+            start = System.nanoTime();
+            ApiEventCodec.writeResponse(output, response);
+            InvocationMetrics.record(Phase.SERIALIZATION, System.nanoTime() - start);
+        } finally {
+            metrics.finish(statusCode);
+        }
+    }
+
+    /**
+     * Apply the client's preferred representation; on failure the plain response is still a valid answer.
+     */
+    private static ApiResponse encode(ApiRequest request, ApiResponse response) {
+        long start = System.nanoTime();
+        try {
+            return ResponseEncoder.encode(request, response);
+        } catch (IOException e) {
+            System.out.println("Could not encode response, sending it as is: " + e.getMessage());
+            return response;
+        } finally {
+            InvocationMetrics.record(Phase.SERIALIZATION, System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package cloud.localstack.db.apigw;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The parts of an API Gateway proxy event the dog handlers use. Header names are lower-cased so lookups are
+ * case-insensitive for both REST (v1) and HTTP (v2) API events.
+ */
+public record ApiRequest(String method,
+                         Map<String, String> pathParameters,
+                         Map<String, String> queryStringParameters,
+                         Map<String, String> headers,
+                         String body) {
+
+    public String pathParameter(String name) {
+        return pathParameters.get(name);
+    }
+
+    public String queryParameter(String name) {
+        return queryStringParameters.get(name);
+    }
+
+    public String header(String name) {
+        return headers.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Adapt an event that the Lambda runtime already deserialized into maps.
+     */
+    public static ApiRequest fromEvent(Map<String, Object> event) {
+        String method = (String) event.get("httpMethod");
+        if (event.get("requestContext") instanceof Map<?, ?> requestContext
+                && requestContext.get("http") instanceof Map<?, ?> http) {
+            method = (String) http.get("method");
+        }
+        return new ApiRequest(
+                method,
+                stringMap(event.get("pathParameters"), false),
+                stringMap(event.get("queryStringParameters"), false),
+                stringMap(event.get("headers"), true),
+                (String) event.get("body"));
+    }
+
+    private static Map<String, String> stringMap(Object value, boolean lowerCaseKeys) {
+        if (!(value instanceof Map<?, ?> map)) {
+            return Map.of();
+        }
+        Map<String, String> result = new HashMap<>(map.size() * 2);
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            if (entry.getValue() != null) {
+                String key = entry.getKey().toString();
+                result.put(lowerCaseKeys ? key.toLowerCase(Locale.ROOT) : key, entry.getValue().toString());
+            }
+        }
+        return result;
+    }
+}
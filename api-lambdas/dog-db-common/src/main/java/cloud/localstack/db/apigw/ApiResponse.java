@@ -0,0 +1,47 @@
+package cloud.localstack.db.apigw;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * API Gateway proxy response. {@code base64Encoded} bodies hold binary content, such as a compressed or CBOR
+ * body produced by {@link ResponseEncoder}, which API Gateway decodes before sending it to the client.
+ */
+public record ApiResponse(int statusCode, Map<String, String> headers, String body, boolean base64Encoded) {
+
+    public static final String JSON = "application/json";
+
+    public ApiResponse(int statusCode, Map<String, String> headers, String body) {
+        this(statusCode, headers, body, false);
+    }
+
+    public static ApiResponse of(int statusCode, String body) {
+        return new ApiResponse(statusCode, Map.of(), body);
+    }
+
+    /**
+     * A JSON body, which {@link ResponseEncoder} may re-encode in a binary format the client asked for.
+     */
+    public static ApiResponse json(int statusCode, String body) {
+        return new ApiResponse(statusCode, Map.of("Content-Type", JSON), body);
+    }
+
+    public ApiResponse withHeader(String name, String value) {
+        Map<String, String> merged = new HashMap<>(headers);
+        merged.put(name, value);
+        return new ApiResponse(statusCode, merged, body, base64Encoded);
+    }
+
+    /**
+     * The map form returned by {@code RequestHandler<Map<String, Object>, Map<String, Object>>} handlers.
+     */
+    public Map<String, Object> toMap() {
+        if (base64Encoded) {
+            return Map.of("statusCode", statusCode, "headers", headers, "body", body, "isBase64Encoded", true);
+        }
+        if (headers.isEmpty()) {
+            return Map.of("statusCode", statusCode, "body", body);
+        }
+        return Map.of("statusCode", statusCode, "headers", headers, "body", body);
+    }
+}
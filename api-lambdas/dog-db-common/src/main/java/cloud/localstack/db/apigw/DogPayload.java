@@ -0,0 +1,69 @@
+package cloud.localstack.db.apigw;
+
+import cloud.localstack.db.metrics.InvocationMetrics;
+import cloud.localstack.db.metrics.Phase;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+
+/**
+ * Dog fields from a POST/PUT/PATCH body, read with the streaming parser instead of into a Map. Fields are
+ * null when absent; numbers and numeric strings are both accepted, as the API always did.
+ */
+public record DogPayload(String id, String name, Double age, String category) {
+
+    private static final JsonFactory jsonFactory = new JsonFactory();
+
+    public static DogPayload parse(String body) throws IOException {
+        long start = System.nanoTime();
+        try {
+            return read(body);
+        } finally {
+            InvocationMetrics.record(Phase.SERIALIZATION, System.nanoTime() - start);
+        }
+    }
+
+    private static DogPayload read(String body) throws IOException {
+        if (body == null) {
+            throw new IOException("Missing request body");
+        }
+        String id = null;
+        String name = null;
+        Double age = null;
+        String category = null;
+
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Request body must be a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "id" -> id = scalar(parser);
+                    case "name" -> name = scalar(parser);
+                    case "age" -> {
+                        String value = scalar(parser);
+                        age = value != null ? Double.parseDouble(value) : null;
+                    }
+                    case "category" -> category = scalar(parser);
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+        return new DogPayload(id, name, age, category);
+    }
+
+    private static String scalar(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (!token.isScalarValue()) {
+            throw new IOException("Field '" + parser.currentName() + "' must be a scalar value");
+        }
+        return parser.getValueAsString();
+    }
+}
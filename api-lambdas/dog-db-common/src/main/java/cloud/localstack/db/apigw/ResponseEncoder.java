@@ -0,0 +1,191 @@
+package cloud.localstack.db.apigw;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Negotiates the representation of a response from the request's {@code Accept} and {@code Accept-Encoding}
+ * headers. JSON bodies ({@link ApiResponse#json}) are transcoded to CBOR or Smile when the client accepts one
+ * of them, and bodies of at least {@code RESPONSE_COMPRESSION_MIN_BYTES} (default 1024, negative disables) are
+ * gzip- or deflate-compressed. Either way the result is binary and returned base64-encoded for API Gateway.
+ * <p>
+ * Every response that could have been encoded differently carries {@code Vary}, including the plain ones, so a
+ * shared cache does not hand one client's representation to another. A re-encoded response also carries a weak
+ * {@code ETag}, since its bytes differ from the plain JSON with the same tag.
+ */
+public final class ResponseEncoder {
+
+    public static final String CBOR = "application/cbor";
+    public static final String SMILE = "application/x-jackson-smile";
+    static final int DEFAULT_MIN_COMPRESS_BYTES = 1024;
+
+    private static final int MIN_COMPRESS_BYTES = minCompressBytesFromEnv();
+    private static final JsonFactory jsonFactory = new JsonFactory();
+    private static final CBORFactory cborFactory = new CBORFactory();
+    private static final SmileFactory smileFactory = new SmileFactory();
+
+    private ResponseEncoder() {
+    }
+
+    public static ApiResponse encode(ApiRequest request, ApiResponse response) throws IOException {
+        String body = response.body();
+        if (body == null || body.isEmpty() || response.base64Encoded()) {
+            return response;
+        }
+
+        byte[] bytes = null;
+        String contentType = null;
+        if (isJson(response)) {
+            String accept = request.header("Accept");
+            if (accepts(accept, CBOR)) {
+                bytes = transcode(body, cborFactory);
+                contentType = CBOR;
+            } else if (accepts(accept, SMILE)) {
+                bytes = transcode(body, smileFactory);
+                contentType = SMILE;
+            }
+        }
+
+        String encoding = null;
+        boolean compressible = false;
+        if (MIN_COMPRESS_BYTES >= 0) {
+            int length = bytes != null ? bytes.length : utf8Length(body);
+            if (length >= MIN_COMPRESS_BYTES) {
+                encoding = contentEncoding(request.header("Accept-Encoding"));
+            }
+            // another Accept could have picked a representation that is large enough
+            compressible = length >= MIN_COMPRESS_BYTES || bytes != null && utf8Length(body) >= MIN_COMPRESS_BYTES;
+        }
+        String vary = vary(isJson(response), compressible);
+        if (bytes == null && encoding == null) {
+            return vary == null ? response : response.withHeader("Vary", vary);
+        }
+
+        byte[] payload = bytes != null ? bytes : body.getBytes(StandardCharsets.UTF_8);
+        if (encoding != null) {
+            payload = compress(payload, encoding);
+        }
+
+        Map<String, String> headers = new HashMap<>(response.headers());
+        if (contentType != null) {
+            headers.put("Content-Type", contentType);
+        }
+        if (encoding != null) {
+            headers.put("Content-Encoding", encoding);
+        }
+        headers.put("Vary", vary);
+        String etag = headers.get("ETag");
+        if (etag != null && !etag.startsWith("W/")) {
+            headers.put("ETag", "W/" + etag);
+        }
+        return new ApiResponse(response.statusCode(), headers, Base64.getEncoder().encodeToString(payload), true);
+    }
+
+    /**
+     * Whether the header lists the value without {@code q=0}. Wildcards are not expanded.
+     */
+    static boolean accepts(String header, String value) {
+        if (header == null) {
+            return false;
+        }
+        for (String candidate : header.split(",")) {
+            String[] params = candidate.split(";");
+            if (!params[0].trim().equalsIgnoreCase(value)) {
+                continue;
+            }
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        return Double.parseDouble(param.substring(2)) > 0;
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * The request headers the representation depends on, or null if it is always the same.
+     */
+    private static String vary(boolean transcodable, boolean compressible) {
+        if (transcodable && compressible) {
+            return "Accept, Accept-Encoding";
+        }
+        if (transcodable) {
+            return "Accept";
+        }
+        return compressible ? "Accept-Encoding" : null;
+    }
+
+    private static String contentEncoding(String acceptEncoding) {
+        if (accepts(acceptEncoding, "gzip")) {
+            return "gzip";
+        }
+        if (accepts(acceptEncoding, "deflate")) {
+            return "deflate";
+        }
+        return null;
+    }
+
+    private static boolean isJson(ApiResponse response) {
+        String contentType = response.headers().get("Content-Type");
+        return contentType != null && contentType.startsWith(ApiResponse.JSON);
+    }
+
+    private static byte[] transcode(String json, JsonFactory target) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length());
+        try (JsonParser parser = jsonFactory.createParser(json);
+             JsonGenerator generator = target.createGenerator(out)) {
+            while (parser.nextToken() != null) {
+                generator.copyCurrentEvent(parser);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] compress(byte[] bytes, String encoding) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, bytes.length / 4));
+        try (OutputStream compressor = encoding.equals("gzip")
+                ? new GZIPOutputStream(out)
+                : new DeflaterOutputStream(out)) {
+            compressor.write(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * The UTF-8 size without encoding the string; bodies under the threshold are never copied.
+     */
+    private static int utf8Length(String body) {
+        int length = body.length();
+        for (int i = 0; i < body.length(); i++) {
+            char c = body.charAt(i);
+            if (c >= 0x80) {
+                length += c >= 0x800 && !Character.isSurrogate(c) ? 2 : 1;
+            }
+        }
+        return length;
+    }
+
+    private static int minCompressBytesFromEnv() {
+        String value = System.getenv("RESPONSE_COMPRESSION_MIN_BYTES");
+        return value == null || value.isBlank() ? DEFAULT_MIN_COMPRESS_BYTES : Integer.parseInt(value.trim());
+    }
+}
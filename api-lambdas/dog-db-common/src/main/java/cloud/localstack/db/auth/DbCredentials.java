@@ -0,0 +1,12 @@
+package cloud.localstack.db.auth;
+
+/**
+ * Database username and password stored in a Secrets Manager secret.
+ */
+public record DbCredentials(String username, String password) {
+
+    @Override
+    public String toString() {
+        return "DbCredentials[username=" + username + "]";
+    }
+}
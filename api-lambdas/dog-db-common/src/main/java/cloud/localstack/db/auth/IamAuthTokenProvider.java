@@ -0,0 +1,122 @@
+package cloud.localstack.db.auth;
+
+import cloud.localstack.db.metrics.InvocationMetrics;
+import cloud.localstack.db.metrics.Phase;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.rds.RdsUtilities;
+import software.amazon.awssdk.services.rds.model.GenerateAuthenticationTokenRequest;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caches RDS IAM authentication tokens per (host, port, user, region) and refreshes them in the
+ * background well before the 15 minute expiry, so opening a connection does not have to sign a request.
+ * Refreshes run with a fixed delay, so a container thawed after a long freeze signs one token per key rather
+ * than one for every period it missed.
+ */
+public class IamAuthTokenProvider {
+
+    static final Duration TOKEN_LIFETIME = Duration.ofMinutes(15);
+    static final Duration REFRESH_INTERVAL = Duration.ofMinutes(10);
+    static final Duration EXPIRY_MARGIN = Duration.ofMinutes(1);
+
+    private static final IamAuthTokenProvider INSTANCE = new IamAuthTokenProvider(
+            DefaultCredentialsProvider.create(), Clock.systemUTC());
+
+    private final AwsCredentialsProvider credentialsProvider;
+    private final Clock clock;
+    private final Map<String, RdsUtilities> utilitiesByRegion = new ConcurrentHashMap<>();
+    private final Map<TokenKey, CachedToken> tokens = new ConcurrentHashMap<>();
+    private final Map<TokenKey, ScheduledFuture<?>> refreshes = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "iam-token-refresher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    IamAuthTokenProvider(AwsCredentialsProvider credentialsProvider, Clock clock) {
+        this.credentialsProvider = credentialsProvider;
+        this.clock = clock;
+    }
+
+    public static IamAuthTokenProvider getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Return a token that is valid for at least another minute, generating one only on a cache miss or
+     * when the container was frozen past the background refresh.
+     */
+    public String getToken(String host, int port, String username, String region) {
+        TokenKey key = new TokenKey(host, port, username, region);
+        CachedToken cached = tokens.get(key);
+        if (cached != null && cached.isUsableAt(clock.instant())) {
+            return cached.token();
+        }
+
+        CachedToken fresh = tokens.compute(key, (k, current) ->
+                current != null && current.isUsableAt(clock.instant()) ? current : generate(k));
+        refreshes.computeIfAbsent(key, k -> refresher.scheduleWithFixedDelay(() -> refresh(k),
+                REFRESH_INTERVAL.toMillis(), REFRESH_INTERVAL.toMillis(), TimeUnit.MILLISECONDS));
+        return fresh.token();
+    }
+
+    /**
+     * Drop every cached token and stop refreshing them, e.g. after credentials have changed. The next
+     * {@link #getToken} for a key generates a token and schedules its refresh again.
+     */
+    public void invalidateAll() {
+        refreshes.values().forEach(refresh -> refresh.cancel(false));
+        refreshes.clear();
+        tokens.clear();
+    }
+
+    private void refresh(TokenKey key) {
+        try {
+            CachedToken fresh = generate(key);
+            // a refresh that was running when the tokens were invalidated must not bring its key back
+            tokens.computeIfPresent(key, (k, current) -> fresh);
+        } catch (RuntimeException e) {
+            // keep serving the current token; the next getToken call regenerates it if it expires
+            System.out.println("Background IAM auth token refresh failed: " + e.getMessage());
+        }
+    }
+
+    private CachedToken generate(TokenKey key) {
+        RdsUtilities utilities = utilitiesByRegion.computeIfAbsent(key.region(), region -> RdsUtilities.builder()
+                .credentialsProvider(credentialsProvider)
+                .region(Region.of(region))
+                .build());
+
+        GenerateAuthenticationTokenRequest authTokenRequest = GenerateAuthenticationTokenRequest.builder()
+                .username(key.username())
+                .hostname(key.host())
+                .port(key.port())
+                .build();
+
+        long start = System.nanoTime();
+        String token = utilities.generateAuthenticationToken(authTokenRequest);
+        InvocationMetrics.record(Phase.TOKEN_GENERATION, System.nanoTime() - start);
+        return new CachedToken(token, clock.instant());
+    }
+
+    private record TokenKey(String host, int port, String username, String region) {
+    }
+
+    private record CachedToken(String token, Instant issuedAt) {
+
+        boolean isUsableAt(Instant now) {
+            return now.isBefore(issuedAt.plus(TOKEN_LIFETIME).minus(EXPIRY_MARGIN));
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package cloud.localstack.db.auth;
+
+import cloud.localstack.db.aws.EndpointOverride;
+import cloud.localstack.db.aws.HttpClients;
+import cloud.localstack.db.metrics.InvocationMetrics;
+import cloud.localstack.db.metrics.Phase;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.secretsmanager.SecretsManagerClient;
+import software.amazon.awssdk.services.secretsmanager.model.GetSecretValueRequest;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory cache of database credentials read from Secrets Manager.
+ * <p>
+ * Entries live for {@code SECRET_CACHE_TTL_SECONDS} (default 300). Concurrent misses for the same secret
+ * share a single {@code GetSecretValue} call. When the database rejects a login, typically because the
+ * secret was rotated, {@link #connect} refreshes the secret and retries once.
+ */
+public class SecretCache {
+
+    public static final Duration DEFAULT_TTL = Duration.ofMinutes(5);
+
+    private static final SecretCache INSTANCE = new SecretCache(ttlFromEnv(), Clock.systemUTC());
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Duration ttl;
+    private final Clock clock;
+    private final Map<String, SecretsManagerClient> clientsByRegion = new ConcurrentHashMap<>();
+    private final Map<SecretKey, CachedSecret> secrets = new ConcurrentHashMap<>();
+    private final Map<SecretKey, CompletableFuture<CachedSecret>> inFlight = new ConcurrentHashMap<>();
+
+    SecretCache(Duration ttl, Clock clock) {
+        this.ttl = ttl;
+        this.clock = clock;
+    }
+
+    public static SecretCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Return the cached credentials, fetching them if missing or older than the TTL.
+     */
+    public DbCredentials getCredentials(String region, String secretId) {
+        SecretKey key = new SecretKey(region, secretId);
+        CachedSecret cached = secrets.get(key);
+        if (cached != null && clock.instant().isBefore(cached.fetchedAt().plus(ttl))) {
+            return cached.credentials();
+        }
+        return fetch(key).credentials();
+    }
+
+    /**
+     * Fetch the secret again regardless of its age.
+     */
+    public DbCredentials refresh(String region, String secretId) {
+        return fetch(new SecretKey(region, secretId)).credentials();
+    }
+
+    /**
+     * Open a connection with the cached credentials. If the login is rejected the secret is refreshed and
+     * the connection attempted once more with the new value.
+     */
+    public Connection connect(String region, String secretId, Connector connector) throws SQLException {
+        try {
+            return connector.connect(getCredentials(region, secretId));
+        } catch (SQLException e) {
+            if (!isAuthenticationFailure(e)) {
+                throw e;
+            }
+            System.out.println("Database rejected cached credentials, refreshing secret");
+            return connector.connect(refresh(region, secretId));
+        }
+    }
+
+    /**
+     * Drop every cached secret, e.g. before a SnapStart snapshot is taken.
+     */
+    public void invalidateAll() {
+        secrets.clear();
+    }
+
+    public static boolean isAuthenticationFailure(SQLException e) {
+        String state = e.getSQLState();
+        return "28P01".equals(state) || "28000".equals(state);
+    }
+
+    private CachedSecret fetch(SecretKey key) {
+        CompletableFuture<CachedSecret> mine = new CompletableFuture<>();
+        CompletableFuture<CachedSecret> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                throw (RuntimeException) e.getCause();
+            }
+        }
+
+        try {
+            CachedSecret fetched = new CachedSecret(readSecret(key), clock.instant());
+            secrets.put(key, fetched);
+            mine.complete(fetched);
+            return fetched;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private DbCredentials readSecret(SecretKey key) {
+        SecretsManagerClient secretsClient = clientsByRegion.computeIfAbsent(key.region(), region ->
+                EndpointOverride.apply(SecretsManagerClient.builder())
+                        .region(Region.of(region))
+                        .httpClient(HttpClients.urlConnection())
+                        .credentialsProvider(DefaultCredentialsProvider.create())
+                        .build());
+
+        try {
+            GetSecretValueRequest secretRequest = GetSecretValueRequest.builder()
+                    .secretId(key.secretId())
+                    .build();
+
+            long start = System.nanoTime();
+            String secretJson = secretsClient.getSecretValue(secretRequest).secretString();
+            InvocationMetrics.record(Phase.SECRET_FETCH, System.nanoTime() - start);
+            JsonNode secret = objectMapper.readTree(secretJson);
+            return new DbCredentials(secret.path("username").asText(), secret.path("password").asText());
+        } catch (IOException | RuntimeException e) {
+            throw new RuntimeException("Error retrieving secrets from Secrets Manager", e);
+        }
+    }
+
+    private static Duration ttlFromEnv() {
+        String value = System.getenv("SECRET_CACHE_TTL_SECONDS");
+        return value == null || value.isBlank() ? DEFAULT_TTL : Duration.ofSeconds(Long.parseLong(value.trim()));
+    }
+
+    /**
+     * Opens a connection with the given credentials.
+     */
+    @FunctionalInterface
+    public interface Connector {
+
+        Connection connect(DbCredentials credentials) throws SQLException;
+    }
+
+    private record SecretKey(String region, String secretId) {
+    }
+
+    private record CachedSecret(DbCredentials credentials, Instant fetchedAt) {
+    }
+}
@@ -0,0 +1,38 @@
+package cloud.localstack.db.aws;
+
+import software.amazon.awssdk.core.client.builder.SdkClientBuilder;
+
+import java.net.URI;
+
+/**
+ * Points AWS SDK clients at a custom endpoint when the {@code aws.endpointUrl} system property or the
+ * {@code AWS_ENDPOINT_URL} environment variable is set, as newer SDK versions do natively. Used to run the
+ * handlers outside Lambda against LocalStack or a local stand-in; without either setting the SDK's default
+ * endpoint resolution is left untouched.
+ */
+public final class EndpointOverride {
+
+    private EndpointOverride() {
+    }
+
+    public static <B extends SdkClientBuilder<B, ?>> B apply(B builder) {
+        String endpoint = endpoint();
+        if (endpoint != null) {
+            builder.endpointOverride(URI.create(endpoint));
+        }
+        return builder;
+    }
+
+    /**
+     * Whether clients are pointed at a custom endpoint, for settings such as S3 path-style access that only
+     * make sense there.
+     */
+    public static boolean isActive() {
+        return endpoint() != null;
+    }
+
+    private static String endpoint() {
+        String endpoint = System.getProperty("aws.endpointUrl", System.getenv("AWS_ENDPOINT_URL"));
+        return endpoint == null || endpoint.isBlank() ? null : endpoint.trim();
+    }
+}
@@ -0,0 +1,23 @@
+package cloud.localstack.db.aws;
+
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.urlconnection.UrlConnectionHttpClient;
+
+/**
+ * The HTTP client shared by every AWS SDK client of a function. {@code url-connection-client} sits on the
+ * JDK's {@code HttpURLConnection}, so it loads far fewer classes at startup than the Apache client, which is
+ * excluded from the build. Passing it explicitly also spares the SDK its classpath scan for an implementation.
+ * <p>
+ * The SDK does not close clients it was handed, so the shared instance lives as long as the container.
+ */
+public final class HttpClients {
+
+    private static final SdkHttpClient URL_CONNECTION = UrlConnectionHttpClient.builder().build();
+
+    private HttpClients() {
+    }
+
+    public static SdkHttpClient urlConnection() {
+        return URL_CONNECTION;
+    }
+}
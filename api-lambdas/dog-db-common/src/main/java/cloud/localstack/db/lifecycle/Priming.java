@@ -0,0 +1,93 @@
+package cloud.localstack.db.lifecycle;
+
+import cloud.localstack.db.apigw.ApiEventCodec;
+import cloud.localstack.db.apigw.ApiRequest;
+import cloud.localstack.db.apigw.ApiResponse;
+import cloud.localstack.db.apigw.DogPayload;
+import cloud.localstack.db.apigw.ResponseEncoder;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reusable primers for {@link SnapStartLifecycle#onPrime}.
+ */
+public final class Priming {
+
+    private static final String SAMPLE_DOG_JSON = "{\"id\":\"1\",\"name\":\"Buddy\",\"age\":\"3\",\"category\":\"Yipper\"}";
+
+    private Priming() {
+    }
+
+    /**
+     * Serialize and parse a dog so the mapper's serializers and deserializers are built and cached.
+     */
+    public static Runnable jackson(ObjectMapper objectMapper) {
+        return () -> {
+            try {
+                Map<String, Object> dog = objectMapper.readValue(SAMPLE_DOG_JSON, Map.class);
+                Map<String, Object> response = new LinkedHashMap<>(dog);
+                response.put("id", 1L);
+                response.put("age", 3L);
+                objectMapper.writeValueAsString(response);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException(e);
+            }
+        };
+    }
+
+    /**
+     * Run a sample proxy event through {@link ApiEventCodec} and {@link DogPayload}, as the stream handlers do,
+     * and a response through {@link ResponseEncoder}'s CBOR and gzip paths.
+     */
+    public static Runnable apiEventCodec() {
+        return () -> {
+            String event = "{\"httpMethod\":\"POST\",\"headers\":{\"Content-Type\":\"application/json\"},"
+                    + "\"pathParameters\":{\"id\":\"1\"},\"requestContext\":{\"http\":{\"method\":\"POST\"}},"
+                    + "\"body\":" + quote(SAMPLE_DOG_JSON) + "}";
+            try {
+                ApiRequest request = ApiEventCodec.readRequest(
+                        new ByteArrayInputStream(event.getBytes(StandardCharsets.UTF_8)));
+                DogPayload.parse(request.body());
+                ApiEventCodec.writeResponse(new ByteArrayOutputStream(),
+                        ApiResponse.of(200, "primed").withHeader("ETag", "\"1\""));
+                ApiRequest binary = new ApiRequest("GET", Map.of(), Map.of(),
+                        Map.of("accept", ResponseEncoder.CBOR, "accept-encoding", "gzip"), null);
+                ResponseEncoder.encode(binary, ApiResponse.json(200,
+                        "[" + String.join(",", Collections.nCopies(64, SAMPLE_DOG_JSON)) + "]"));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    private static String quote(String json) {
+        return "\"" + json.replace("\"", "\\\"") + "\"";
+    }
+
+    /**
+     * Load and register the PostgreSQL driver and its protocol classes without opening a connection.
+     */
+    public static Runnable postgresDriver() {
+        return () -> {
+            try {
+                ClassLoader loader = Priming.class.getClassLoader();
+                Class.forName("org.postgresql.Driver", true, loader);
+                Class.forName("org.postgresql.core.v3.ConnectionFactoryImpl", true, loader);
+                Class.forName("org.postgresql.core.v3.QueryExecutorImpl", true, loader);
+                Class.forName("org.postgresql.jdbc.PgPreparedStatement", true, loader);
+                Class.forName("org.postgresql.jdbc.PgResultSet", true, loader);
+            } catch (ClassNotFoundException e) {
+                throw new IllegalStateException("PostgreSQL driver is not on the classpath", e);
+            }
+        };
+    }
+}
@@ -0,0 +1,105 @@
+package cloud.localstack.db.lifecycle;
+
+import cloud.localstack.db.auth.IamAuthTokenProvider;
+import cloud.localstack.db.auth.SecretCache;
+import cloud.localstack.db.metrics.InvocationMetrics;
+import cloud.localstack.db.pool.ConnectionPool;
+import cloud.localstack.db.pool.ReadWriteRouter;
+import org.crac.Context;
+import org.crac.Core;
+import org.crac.Resource;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Coordinates Lambda SnapStart (CRaC) checkpoints for a function.
+ * <p>
+ * Before the snapshot the registered primers run so that their classes are loaded and initialized in the
+ * snapshot, then sockets are closed and cached credentials dropped. After restore the restore hooks run;
+ * pools reopen their connections lazily on the next borrow. Without SnapStart the hooks are never called,
+ * and tests can drive them directly through {@link #beforeCheckpoint} and {@link #afterRestore}.
+ */
+public class SnapStartLifecycle implements Resource {
+
+    private static final SnapStartLifecycle INSTANCE = new SnapStartLifecycle();
+
+    static {
+        Core.getGlobalContext().register(INSTANCE);
+    }
+
+    private final List<Runnable> primers = new CopyOnWriteArrayList<>();
+    private final List<Runnable> checkpointHooks = new CopyOnWriteArrayList<>();
+    private final List<Runnable> restoreHooks = new CopyOnWriteArrayList<>();
+
+    SnapStartLifecycle() {
+    }
+
+    public static SnapStartLifecycle getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Close the pool's idle connections before the snapshot is taken.
+     */
+    public SnapStartLifecycle register(ConnectionPool pool) {
+        return onCheckpoint(pool::evictIdle);
+    }
+
+    /**
+     * Close the idle connections of the router's writer and reader pools before the snapshot is taken.
+     */
+    public SnapStartLifecycle register(ReadWriteRouter router) {
+        return onCheckpoint(router::evictIdle);
+    }
+
+    /**
+     * Work that exercises hot code paths so it is already loaded and JIT-friendly in the snapshot.
+     */
+    public SnapStartLifecycle onPrime(Runnable primer) {
+        primers.add(primer);
+        return this;
+    }
+
+    public SnapStartLifecycle onCheckpoint(Runnable hook) {
+        checkpointHooks.add(hook);
+        return this;
+    }
+
+    public SnapStartLifecycle onRestore(Runnable hook) {
+        restoreHooks.add(hook);
+        return this;
+    }
+
+    /**
+     * Run every primer. A failing primer is logged and skipped, priming is best effort.
+     */
+    public void prime() {
+        runAll(primers, "primer");
+    }
+
+    @Override
+    public void beforeCheckpoint(Context<? extends Resource> context) {
+        prime();
+        runAll(checkpointHooks, "checkpoint hook");
+        // tokens and secrets must not be persisted in the snapshot or shared by restored copies
+        IamAuthTokenProvider.getInstance().invalidateAll();
+        SecretCache.getInstance().invalidateAll();
+    }
+
+    @Override
+    public void afterRestore(Context<? extends Resource> context) {
+        InvocationMetrics.restored();
+        runAll(restoreHooks, "restore hook");
+    }
+
+    private static void runAll(List<Runnable> tasks, String kind) {
+        for (Runnable task : tasks) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                System.out.println("SnapStart " + kind + " failed: " + e.getMessage());
+            }
+        }
+    }
+}
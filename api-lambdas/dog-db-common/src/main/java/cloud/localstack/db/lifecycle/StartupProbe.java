@@ -0,0 +1,94 @@
+package cloud.localstack.db.lifecycle;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Plays a cold container in a fresh JVM: loads a handler, sends it one event and exits. The slim build runs it
+ * to record the class-data sharing archive of a function jar, and the load harness's startup benchmark times
+ * it from process start to the {@code first-response} line.
+ * <p>
+ * Usage: {@code StartupProbe <handler class> [event file] [--prime]}. Without an event file a bare
+ * {@code GET} event is sent. {@code --prime} also runs the {@link SnapStartLifecycle} primers afterwards, so an
+ * archive recorded without a database still covers the driver and codec classes of a successful request.
+ * Stream handlers get the event bytes and {@code Map} handlers the parsed event, both with a {@code null}
+ * context, as the benchmarks pass it.
+ */
+public final class StartupProbe {
+
+    static final String DEFAULT_EVENT = "{\"version\":\"2.0\",\"routeKey\":\"GET /dogs/{id}\","
+            + "\"headers\":{\"accept\":\"application/json\"},\"pathParameters\":{\"id\":\"1\"},"
+            + "\"requestContext\":{\"http\":{\"method\":\"GET\",\"path\":\"/dogs/1\"}},\"isBase64Encoded\":false}";
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private StartupProbe() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String handlerClass = null;
+        String eventFile = null;
+        boolean prime = false;
+        for (String arg : args) {
+            if (arg.equals("--prime")) {
+                prime = true;
+            } else if (handlerClass == null) {
+                handlerClass = arg;
+            } else {
+                eventFile = arg;
+            }
+        }
+        if (handlerClass == null) {
+            System.out.println("Usage: StartupProbe <handler class> [event file] [--prime]");
+            System.exit(2);
+        }
+
+        byte[] event = eventFile != null
+                ? Files.readAllBytes(Path.of(eventFile))
+                : DEFAULT_EVENT.getBytes(StandardCharsets.UTF_8);
+        int statusCode = invoke(handlerClass, event);
+        System.out.println("first-response " + statusCode);
+
+        if (prime) {
+            SnapStartLifecycle.getInstance().prime();
+        }
+        // handlers leave pool and listener threads behind, a container would be frozen here
+        System.exit(0);
+    }
+
+    /**
+     * Create the handler and send it the event, returning the response's status code or -1 if it has none.
+     */
+    static int invoke(String handlerClass, byte[] event) throws Exception {
+        Object handler = Class.forName(handlerClass).getDeclaredConstructor().newInstance();
+        for (Method method : handler.getClass().getMethods()) {
+            if (!method.getName().equals("handleRequest") || method.isBridge()) {
+                continue;
+            }
+            Class<?>[] parameters = method.getParameterTypes();
+            if (parameters.length == 3 && parameters[0] == InputStream.class && parameters[1] == OutputStream.class) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                method.invoke(handler, new ByteArrayInputStream(event), out, null);
+                JsonNode response = objectMapper.readTree(out.toByteArray());
+                return response == null ? -1 : response.path("statusCode").asInt(-1);
+            }
+            if (parameters.length == 2 && parameters[0] == Map.class) {
+                Object response = method.invoke(handler, objectMapper.readValue(event, Map.class), null);
+                return response instanceof Map<?, ?> map && map.get("statusCode") instanceof Number status
+                        ? status.intValue() : -1;
+            }
+        }
+        throw new IllegalArgumentException(handlerClass + " has no handleRequest(InputStream, OutputStream, Context) "
+                + "or handleRequest(Map, Context)");
+    }
+}
@@ -0,0 +1,23 @@
+package cloud.localstack.db.metrics;
+
+/**
+ * Events counted per invocation.
+ */
+public enum Counter {
+
+    CACHE_HIT("CacheHits"),
+    CACHE_MISS("CacheMisses"),
+    RECONNECT("Reconnects"),
+    STATEMENT_CACHE_HIT("StatementCacheHits"),
+    /** Operations that make RDS Proxy pin the client connection, see {@code PinningStats}. */
+    PINNING_OPERATION("PinningOperations"),
+    /** Reads served by the reader pool and by the writer, see {@code ReadWriteRouter}. */
+    REPLICA_READ("ReplicaReads"),
+    WRITER_READ("WriterReads");
+
+    final String metricName;
+
+    Counter(String metricName) {
+        this.metricName = metricName;
+    }
+}
@@ -0,0 +1,230 @@
+package cloud.localstack.db.metrics;
+
+import java.time.Instant;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Collects phase timings and counters of the current invocation and writes them as one CloudWatch Embedded
+ * Metric Format line when it finishes, with {@code Handler}, {@code HttpMethod} and {@code ColdStart} as
+ * dimensions. Code deep in the call stack reports through the static {@link #record} and {@link #increment},
+ * which do nothing on threads without an invocation, such as background refreshers. Work an invocation hands to
+ * other threads reports into it when the tasks are wrapped with {@link #propagate}; their phase times add up, so
+ * a phase can then exceed the invocation's duration.
+ * <p>
+ * Instances and their line buffer are reused per thread, so a warm invocation allocates little more than the
+ * final string. Set {@code METRICS_ENABLED=false} (or {@code -Dmetrics.enabled=false}) to turn output off.
+ */
+public final class InvocationMetrics {
+
+    private static final boolean ENABLED = !"false".equalsIgnoreCase(
+            System.getProperty("metrics.enabled", System.getenv("METRICS_ENABLED")));
+    private static final String NAMESPACE = namespaceFromEnv();
+    private static final Phase[] PHASES = Phase.values();
+    private static final Counter[] COUNTERS = Counter.values();
+
+    private static final ThreadLocal<InvocationMetrics> CURRENT = new ThreadLocal<>();
+    private static final ThreadLocal<InvocationMetrics> REUSABLE = ThreadLocal.withInitial(InvocationMetrics::new);
+    private static final AtomicBoolean coldStartPending = new AtomicBoolean(true);
+    private static volatile long restoredAtMillis;
+
+    private final AtomicLongArray phaseNanos = new AtomicLongArray(PHASES.length);
+    private final AtomicIntegerArray phaseRecorded = new AtomicIntegerArray(PHASES.length);
+    private final AtomicIntegerArray counts = new AtomicIntegerArray(COUNTERS.length);
+    private final StringBuilder line = new StringBuilder(768);
+    private String handler;
+    private String method;
+    private boolean coldStart;
+    private long startNanos;
+
+    private InvocationMetrics() {
+    }
+
+    /**
+     * Start collecting for an invocation of the given handler on this thread.
+     */
+    public static InvocationMetrics begin(String handler) {
+        InvocationMetrics metrics = REUSABLE.get();
+        metrics.reset(handler);
+        CURRENT.set(metrics);
+        if (coldStartPending.compareAndSet(true, false)) {
+            metrics.coldStart = true;
+            long initMillis = coldInitMillis();
+            if (initMillis >= 0) {
+                metrics.add(Phase.COLD_INIT, initMillis * 1_000_000);
+            }
+        }
+        return metrics;
+    }
+
+    /**
+     * Add time to a phase of the current invocation.
+     */
+    public static void record(Phase phase, long elapsedNanos) {
+        InvocationMetrics metrics = CURRENT.get();
+        if (metrics != null) {
+            metrics.add(phase, elapsedNanos);
+        }
+    }
+
+    public static void increment(Counter counter) {
+        InvocationMetrics metrics = CURRENT.get();
+        if (metrics != null) {
+            metrics.counts.incrementAndGet(counter.ordinal());
+        }
+    }
+
+    /**
+     * Wrap a task so that it reports into the current invocation on whichever thread runs it. Returns the task
+     * unchanged when this thread has no invocation.
+     */
+    public static <T> Callable<T> propagate(Callable<T> task) {
+        InvocationMetrics metrics = CURRENT.get();
+        if (metrics == null) {
+            return task;
+        }
+        return () -> {
+            InvocationMetrics previous = CURRENT.get();
+            CURRENT.set(metrics);
+            try {
+                return task.call();
+            } finally {
+                if (previous == null) {
+                    CURRENT.remove();
+                } else {
+                    CURRENT.set(previous);
+                }
+            }
+        };
+    }
+
+    /**
+     * Called after a SnapStart restore: the next invocation is a cold start again, timed from the restore.
+     */
+    public static void restored() {
+        restoredAtMillis = System.currentTimeMillis();
+        coldStartPending.set(true);
+    }
+
+    public void method(String method) {
+        this.method = method;
+    }
+
+    /**
+     * Write the EMF line for this invocation and detach it from the thread.
+     */
+    public void finish(int statusCode) {
+        CURRENT.remove();
+        if (!ENABLED) {
+            return;
+        }
+        long durationNanos = System.nanoTime() - startNanos;
+        StringBuilder out = line;
+        out.setLength(0);
+        out.append("{\"_aws\":{\"Timestamp\":").append(System.currentTimeMillis())
+                .append(",\"CloudWatchMetrics\":[{\"Namespace\":\"").append(NAMESPACE)
+                .append("\",\"Dimensions\":[[\"Handler\",\"HttpMethod\",\"ColdStart\"]],\"Metrics\":[")
+                .append("{\"Name\":\"Duration\",\"Unit\":\"Milliseconds\"}");
+        for (int i = 0; i < PHASES.length; i++) {
+            if (phaseRecorded.get(i) != 0) {
+                out.append(",{\"Name\":\"").append(PHASES[i].metricName).append("\",\"Unit\":\"Milliseconds\"}");
+            }
+        }
+        for (int i = 0; i < COUNTERS.length; i++) {
+            if (counts.get(i) > 0) {
+                out.append(",{\"Name\":\"").append(COUNTERS[i].metricName).append("\",\"Unit\":\"Count\"}");
+            }
+        }
+        out.append("]}]},\"Handler\":\"").append(handler)
+                .append("\",\"HttpMethod\":\"");
+        appendMethod(out, method);
+        out.append("\",\"ColdStart\":\"").append(coldStart)
+                .append("\",\"StatusCode\":").append(statusCode)
+                .append(",\"Duration\":");
+        appendMillis(out, durationNanos);
+        for (int i = 0; i < PHASES.length; i++) {
+            if (phaseRecorded.get(i) != 0) {
+                out.append(",\"").append(PHASES[i].metricName).append("\":");
+                appendMillis(out, phaseNanos.get(i));
+            }
+        }
+        for (int i = 0; i < COUNTERS.length; i++) {
+            int count = counts.get(i);
+            if (count > 0) {
+                out.append(",\"").append(COUNTERS[i].metricName).append("\":").append(count);
+            }
+        }
+        out.append('}');
+        System.out.println(out);
+    }
+
+    private void reset(String handler) {
+        this.handler = handler;
+        this.method = null;
+        this.coldStart = false;
+        this.startNanos = System.nanoTime();
+        for (int i = 0; i < PHASES.length; i++) {
+            phaseNanos.set(i, 0);
+            phaseRecorded.set(i, 0);
+        }
+        for (int i = 0; i < COUNTERS.length; i++) {
+            counts.set(i, 0);
+        }
+    }
+
+    private void add(Phase phase, long elapsedNanos) {
+        phaseNanos.addAndGet(phase.ordinal(), elapsedNanos);
+        phaseRecorded.set(phase.ordinal(), 1);
+    }
+
+    /**
+     * Milliseconds with microsecond precision, formatted without going through double formatting.
+     */
+    private static void appendMillis(StringBuilder out, long nanos) {
+        long micros = nanos / 1_000;
+        out.append(micros / 1_000).append('.');
+        long fraction = micros % 1_000;
+        if (fraction < 100) {
+            out.append('0');
+        }
+        if (fraction < 10) {
+            out.append('0');
+        }
+        out.append(fraction);
+    }
+
+    /**
+     * HTTP methods are plain letters; anything else is not echoed into the JSON line.
+     */
+    private static void appendMethod(StringBuilder out, String method) {
+        if (method == null || method.isEmpty()) {
+            out.append("UNKNOWN");
+            return;
+        }
+        for (int i = 0; i < method.length(); i++) {
+            if (!Character.isLetter(method.charAt(i))) {
+                out.append("OTHER");
+                return;
+            }
+        }
+        out.append(method);
+    }
+
+    private static long coldInitMillis() {
+        long now = System.currentTimeMillis();
+        if (restoredAtMillis > 0) {
+            return now - restoredAtMillis;
+        }
+        return ProcessHandle.current().info().startInstant()
+                .map(Instant::toEpochMilli)
+                .map(start -> now - start)
+                .orElse(-1L);
+    }
+
+    private static String namespaceFromEnv() {
+        String value = System.getenv("METRICS_NAMESPACE");
+        return value == null || value.isBlank() ? "DogApi" : value.replace("\"", "");
+    }
+}
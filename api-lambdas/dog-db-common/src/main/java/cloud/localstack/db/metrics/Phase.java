@@ -0,0 +1,22 @@
+package cloud.localstack.db.metrics;
+
+/**
+ * Timed parts of an invocation. Phases can nest: opening a new connection inside {@link #CONNECTION_ACQUIRE}
+ * also records {@link #SECRET_FETCH} or {@link #TOKEN_GENERATION} when credentials are not cached.
+ */
+public enum Phase {
+
+    /** Time from container start, or SnapStart restore, to the first invocation; reported once per container. */
+    COLD_INIT("ColdInitTime"),
+    SECRET_FETCH("SecretFetchTime"),
+    TOKEN_GENERATION("TokenGenerationTime"),
+    CONNECTION_ACQUIRE("ConnectionAcquireTime"),
+    SQL_EXECUTE("SqlExecuteTime"),
+    SERIALIZATION("SerializationTime");
+
+    final String metricName;
+
+    Phase(String metricName) {
+        this.metricName = metricName;
+    }
+}
@@ -0,0 +1,13 @@
+package cloud.localstack.db.pool;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Opens a new physical database connection for the pool.
+ */
+@FunctionalInterface
+public interface ConnectionFactory {
+
+    Connection connect() throws SQLException;
+}
@@ -0,0 +1,362 @@
+package cloud.localstack.db.pool;
+
+import cloud.localstack.db.metrics.Counter;
+import cloud.localstack.db.metrics.InvocationMetrics;
+import cloud.localstack.db.metrics.Phase;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Small JDBC connection pool for Lambda containers.
+ * <p>
+ * Connections are validated when borrowed (unless they were used moments ago), retired after
+ * {@link PoolConfig#maxLifetime()} and evicted after {@link PoolConfig#idleTimeout()}. Eviction is done
+ * lazily on borrow because a frozen Lambda container cannot run a background reaper.
+ */
+public class ConnectionPool {
+
+    private final PoolConfig config;
+    private final ConnectionFactory factory;
+    private final Semaphore permits;
+    private final Deque<PooledEntry> idle = new ArrayDeque<>();
+    private final PinningStats pinning = new PinningStats();
+
+    public ConnectionPool(PoolConfig config, ConnectionFactory factory) {
+        this.config = config;
+        this.factory = factory;
+        this.permits = new Semaphore(config.maxSize(), true);
+    }
+
+    /**
+     * Borrow a connection. Closing the returned connection hands it back to the pool.
+     */
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return borrow();
+        } finally {
+            InvocationMetrics.record(Phase.CONNECTION_ACQUIRE, System.nanoTime() - start);
+        }
+    }
+
+    private Connection borrow() throws SQLException {
+        try {
+            if (!permits.tryAcquire(config.borrowTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException("Timed out waiting for a pooled database connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a pooled database connection", e);
+        }
+
+        try {
+            PooledEntry entry = takeHealthyIdle();
+            if (entry == null) {
+                entry = new PooledEntry(factory.connect());
+            }
+            return entry.lease();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Run the given work on a pooled connection. Idle connections that RDS Proxy closed while the container
+     * was frozen fail validation on borrow and are replaced, and if opening a connection fails it is tried
+     * once more. The work itself is never replayed: once a statement may have reached the server, a lost
+     * connection could still have committed it, and running it again could insert a row twice.
+     */
+    public <T> T withConnection(SqlWork<T> work) throws SQLException {
+        Connection connection;
+        try {
+            connection = getConnection();
+        } catch (SQLException e) {
+            if (!isConnectionFailure(e)) {
+                throw e;
+            }
+            System.out.println("Could not connect to the database, retrying: " + e.getMessage());
+            InvocationMetrics.increment(Counter.RECONNECT);
+            evictIdle();
+            connection = getConnection();
+        }
+        return run(connection, work);
+    }
+
+    /**
+     * Open a connection ahead of the first request so the connect cost is paid during init.
+     */
+    public void warmUp() {
+        try {
+            getConnection().close();
+        } catch (SQLException | RuntimeException e) {
+            System.out.println("Could not pre-open database connection: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Close every idle connection. Connections currently borrowed are closed when they are returned.
+     */
+    public void evictIdle() {
+        List<PooledEntry> evicted;
+        synchronized (idle) {
+            evicted = new ArrayList<>(idle);
+            idle.clear();
+        }
+        evicted.forEach(PooledEntry::closeQuietly);
+    }
+
+    /**
+     * Pinning-inducing operations and statement cache use on this pool's connections.
+     */
+    public PinningStats pinningStats() {
+        return pinning;
+    }
+
+    public static boolean isConnectionFailure(SQLException e) {
+        String state = e.getSQLState();
+        return state != null && state.startsWith("08");
+    }
+
+    private <T> T run(Connection connection, SqlWork<T> work) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return work.execute(connection);
+        } catch (SQLException e) {
+            if (isConnectionFailure(e)) {
+                ((Leased) connection).markBroken();
+                // the other idle connections were probably dropped along with this one
+                evictIdle();
+            }
+            throw e;
+        } finally {
+            InvocationMetrics.record(Phase.SQL_EXECUTE, System.nanoTime() - start);
+            connection.close();
+        }
+    }
+
+    private PooledEntry takeHealthyIdle() {
+        while (true) {
+            PooledEntry entry;
+            synchronized (idle) {
+                entry = idle.pollFirst();
+            }
+            if (entry == null) {
+                return null;
+            }
+
+            long now = System.nanoTime();
+            if (entry.isExpired(now) || entry.isIdleTooLong(now)) {
+                entry.closeQuietly();
+                continue;
+            }
+            if (!entry.isAlive(now)) {
+                System.out.println("Pooled database connection was closed, reconnecting");
+                InvocationMetrics.increment(Counter.RECONNECT);
+                entry.closeQuietly();
+                continue;
+            }
+            return entry;
+        }
+    }
+
+    private void release(PooledEntry entry, boolean broken) {
+        try {
+            long now = System.nanoTime();
+            if (broken || entry.isExpired(now) || !entry.reset()) {
+                entry.closeQuietly();
+                return;
+            }
+            entry.lastUsed = now;
+            synchronized (idle) {
+                idle.offerFirst(entry);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Extra interface implemented by leased connection proxies.
+     */
+    interface Leased {
+
+        void markBroken();
+    }
+
+    private final class PooledEntry {
+
+        private final Connection physical;
+        private final StatementCache statements;
+        private final long createdAt;
+        private long lastUsed;
+        private boolean sessionDefaultsRecorded;
+        private boolean readOnly;
+        private int isolation;
+        private boolean sessionChanged;
+
+        PooledEntry(Connection physical) {
+            this.physical = physical;
+            this.statements = new StatementCache(physical, config.statementMode(), config.statementCacheSize(), pinning);
+            this.createdAt = System.nanoTime();
+            this.lastUsed = createdAt;
+        }
+
+        boolean isExpired(long now) {
+            return now - createdAt > config.maxLifetime().toNanos();
+        }
+
+        boolean isIdleTooLong(long now) {
+            return now - lastUsed > config.idleTimeout().toNanos();
+        }
+
+        boolean isAlive(long now) {
+            if (now - lastUsed < config.validationBypass().toNanos()) {
+                return true;
+            }
+            try {
+                return physical.isValid(config.validationTimeoutSeconds());
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        /**
+         * Undo per-lease state so the next borrower sees a clean connection.
+         */
+        boolean reset() {
+            try {
+                if (physical.isClosed()) {
+                    return false;
+                }
+                statements.releaseAll();
+                if (!physical.getAutoCommit()) {
+                    physical.rollback();
+                    physical.setAutoCommit(true);
+                }
+                if (sessionChanged) {
+                    physical.setReadOnly(readOnly);
+                    physical.setTransactionIsolation(isolation);
+                    sessionChanged = false;
+                }
+                return true;
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        /**
+         * Remember the connection's read-only flag and isolation level before a borrower first changes them, so
+         * {@link #reset} can restore them.
+         */
+        void sessionSettingChanging() throws SQLException {
+            if (!sessionDefaultsRecorded) {
+                readOnly = physical.isReadOnly();
+                isolation = physical.getTransactionIsolation();
+                sessionDefaultsRecorded = true;
+            }
+            sessionChanged = true;
+        }
+
+        void closeQuietly() {
+            statements.closeAll();
+            try {
+                physical.close();
+            } catch (SQLException ignored) {
+                // the connection is being discarded anyway
+            }
+        }
+
+        Connection lease() {
+            return (Connection) Proxy.newProxyInstance(
+                    ConnectionPool.class.getClassLoader(),
+                    new Class<?>[]{Connection.class, Leased.class},
+                    new LeaseHandler(this));
+        }
+    }
+
+    private final class LeaseHandler implements InvocationHandler {
+
+        private final PooledEntry entry;
+        private boolean returned;
+        private boolean broken;
+
+        LeaseHandler(PooledEntry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        release(entry, broken);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || entry.physical.isClosed();
+                case "markBroken":
+                    broken = true;
+                    return null;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled[" + entry.physical + "]";
+                default:
+                    break;
+            }
+
+            if (returned) {
+                throw new SQLException("Connection has already been returned to the pool", "08003");
+            }
+            try {
+                // session-level settings make RDS Proxy pin the connection for the rest of the session
+                switch (method.getName()) {
+                    case "prepareStatement":
+                        if (args.length == 1) {
+                            return entry.statements.prepare((String) args[0], (Connection) proxy);
+                        }
+                        pinning.inspect((String) args[0]);
+                        return entry.statements.track(
+                                entry.statements.configure((Statement) method.invoke(entry.physical, args)),
+                                (Connection) proxy);
+                    case "createStatement":
+                        return entry.statements.track((Statement) method.invoke(entry.physical, args), (Connection) proxy);
+                    case "setTransactionIsolation", "setReadOnly":
+                        // restored when the connection is returned
+                        entry.sessionSettingChanging();
+                        pinning.sessionSetting();
+                        break;
+                    case "setSchema", "setCatalog", "setClientInfo":
+                        pinning.sessionSetting();
+                        break;
+                    default:
+                        break;
+                }
+                return method.invoke(entry.physical, args);
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof SQLException sqlException && isConnectionFailure(sqlException)) {
+                    broken = true;
+                }
+                throw cause;
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package cloud.localstack.db.pool;
+
+import cloud.localstack.db.metrics.Counter;
+import cloud.localstack.db.metrics.InvocationMetrics;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Counts operations on pooled connections that make RDS Proxy pin the client connection to one database
+ * connection: server-side prepared statements, session-level settings and SQL such as {@code SET},
+ * {@code LISTEN}, {@code PREPARE}, temporary tables and advisory locks. Each one is also reported
+ * to {@link InvocationMetrics}.
+ */
+public class PinningStats {
+
+    // pg_advisory_lock, pg_try_advisory_lock, pg_advisory_xact_lock, their _shared forms and so on
+    private static final Pattern ADVISORY_LOCK = Pattern.compile("PG_(TRY_)?ADVISORY_(XACT_)?LOCK(_SHARED)?\\s*\\(");
+
+    private final AtomicLong serverPrepares = new AtomicLong();
+    private final AtomicLong sessionSettings = new AtomicLong();
+    private final AtomicLong pinningStatements = new AtomicLong();
+    private final AtomicLong statementCacheHits = new AtomicLong();
+    private final AtomicLong statementCacheMisses = new AtomicLong();
+
+    public long serverPrepares() {
+        return serverPrepares.get();
+    }
+
+    public long sessionSettings() {
+        return sessionSettings.get();
+    }
+
+    public long pinningStatements() {
+        return pinningStatements.get();
+    }
+
+    public long statementCacheHits() {
+        return statementCacheHits.get();
+    }
+
+    public long statementCacheMisses() {
+        return statementCacheMisses.get();
+    }
+
+    public long total() {
+        return serverPrepares() + sessionSettings() + pinningStatements();
+    }
+
+    void serverPrepare() {
+        serverPrepares.incrementAndGet();
+        InvocationMetrics.increment(Counter.PINNING_OPERATION);
+    }
+
+    void sessionSetting() {
+        sessionSettings.incrementAndGet();
+        InvocationMetrics.increment(Counter.PINNING_OPERATION);
+    }
+
+    void statementCacheHit() {
+        statementCacheHits.incrementAndGet();
+        InvocationMetrics.increment(Counter.STATEMENT_CACHE_HIT);
+    }
+
+    void statementCacheMiss() {
+        statementCacheMisses.incrementAndGet();
+    }
+
+    /**
+     * Count the statement if its SQL pins the connection.
+     */
+    void inspect(String sql) {
+        if (sql != null && pins(sql)) {
+            pinningStatements.incrementAndGet();
+            InvocationMetrics.increment(Counter.PINNING_OPERATION);
+        }
+    }
+
+    static boolean pins(String sql) {
+        String normalized = sql.stripLeading().toUpperCase(Locale.ROOT);
+        return normalized.startsWith("SET ")
+                || normalized.startsWith("PREPARE ")
+                || normalized.startsWith("LISTEN ")
+                || normalized.startsWith("DECLARE ") && normalized.contains(" WITH HOLD ")
+                || normalized.startsWith("CREATE TEMP")
+                || ADVISORY_LOCK.matcher(normalized).find();
+    }
+
+    @Override
+    public String toString() {
+        return "PinningStats[serverPrepares=" + serverPrepares + ", sessionSettings=" + sessionSettings
+                + ", pinningStatements=" + pinningStatements + ", statementCacheHits=" + statementCacheHits
+                + ", statementCacheMisses=" + statementCacheMisses + "]";
+    }
+}
@@ -0,0 +1,83 @@
+package cloud.localstack.db.pool;
+
+import java.time.Duration;
+
+/**
+ * Pool settings. Defaults are tuned for a Lambda container that serves one request at a time
+ * behind RDS Proxy, whose idle client timeout is 30 minutes by default.
+ *
+ * @param statementCacheSize prepared statements kept open per connection, 0 disables the cache
+ */
+public record PoolConfig(int maxSize,
+                         Duration maxLifetime,
+                         Duration idleTimeout,
+                         Duration validationBypass,
+                         Duration borrowTimeout,
+                         int validationTimeoutSeconds,
+                         StatementMode statementMode,
+                         int statementCacheSize) {
+
+    public static final int DEFAULT_MAX_SIZE = 1;
+    public static final Duration DEFAULT_MAX_LIFETIME = Duration.ofMinutes(25);
+    public static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofMinutes(10);
+    public static final Duration DEFAULT_VALIDATION_BYPASS = Duration.ofMillis(500);
+    public static final Duration DEFAULT_BORROW_TIMEOUT = Duration.ofSeconds(10);
+    public static final int DEFAULT_VALIDATION_TIMEOUT_SECONDS = 2;
+    public static final StatementMode DEFAULT_STATEMENT_MODE = StatementMode.PROXY_SAFE;
+    public static final int DEFAULT_STATEMENT_CACHE_SIZE = 20;
+
+    public PoolConfig {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be at least 1");
+        }
+        if (statementCacheSize < 0) {
+            throw new IllegalArgumentException("statementCacheSize must not be negative");
+        }
+    }
+
+    public static PoolConfig defaults() {
+        return new PoolConfig(DEFAULT_MAX_SIZE, DEFAULT_MAX_LIFETIME, DEFAULT_IDLE_TIMEOUT,
+                DEFAULT_VALIDATION_BYPASS, DEFAULT_BORROW_TIMEOUT, DEFAULT_VALIDATION_TIMEOUT_SECONDS,
+                DEFAULT_STATEMENT_MODE, DEFAULT_STATEMENT_CACHE_SIZE);
+    }
+
+    /**
+     * Read overrides from DB_POOL_* and DB_STATEMENT_* environment variables, falling back to the defaults.
+     */
+    public static PoolConfig fromEnv() {
+        return new PoolConfig(
+                intEnv("DB_POOL_MAX_SIZE", DEFAULT_MAX_SIZE),
+                Duration.ofSeconds(intEnv("DB_POOL_MAX_LIFETIME_SECONDS", (int) DEFAULT_MAX_LIFETIME.toSeconds())),
+                Duration.ofSeconds(intEnv("DB_POOL_IDLE_TIMEOUT_SECONDS", (int) DEFAULT_IDLE_TIMEOUT.toSeconds())),
+                DEFAULT_VALIDATION_BYPASS,
+                Duration.ofSeconds(intEnv("DB_POOL_BORROW_TIMEOUT_SECONDS", (int) DEFAULT_BORROW_TIMEOUT.toSeconds())),
+                DEFAULT_VALIDATION_TIMEOUT_SECONDS,
+                statementModeEnv(),
+                intEnv("DB_STATEMENT_CACHE_SIZE", DEFAULT_STATEMENT_CACHE_SIZE));
+    }
+
+    public PoolConfig withMaxSize(int maxSize) {
+        return new PoolConfig(maxSize, maxLifetime, idleTimeout, validationBypass, borrowTimeout,
+                validationTimeoutSeconds, statementMode, statementCacheSize);
+    }
+
+    public PoolConfig withValidationBypass(Duration validationBypass) {
+        return new PoolConfig(maxSize, maxLifetime, idleTimeout, validationBypass, borrowTimeout,
+                validationTimeoutSeconds, statementMode, statementCacheSize);
+    }
+
+    public PoolConfig withStatementMode(StatementMode statementMode) {
+        return new PoolConfig(maxSize, maxLifetime, idleTimeout, validationBypass, borrowTimeout,
+                validationTimeoutSeconds, statementMode, statementCacheSize);
+    }
+
+    private static StatementMode statementModeEnv() {
+        String value = System.getenv("DB_STATEMENT_MODE");
+        return value == null || value.isBlank() ? DEFAULT_STATEMENT_MODE : StatementMode.parse(value);
+    }
+
+    private static int intEnv(String name, int defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isBlank() ? defaultValue : Integer.parseInt(value.trim());
+    }
+}
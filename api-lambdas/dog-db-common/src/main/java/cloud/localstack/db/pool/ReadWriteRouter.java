@@ -0,0 +1,130 @@
+package cloud.localstack.db.pool;
+
+import cloud.localstack.db.metrics.Counter;
+import cloud.localstack.db.metrics.InvocationMetrics;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.function.Function;
+
+/**
+ * Sends read-only work to a reader pool and everything else to the writer pool. The reader is typically an
+ * RDS Proxy read-only endpoint or a multi-host URL with {@code targetServerType=preferSecondary}; without one,
+ * reads use the writer as before.
+ * <p>
+ * A read carrying a {@link SessionLsn} token is only served by the reader if the replica behind the borrowed
+ * connection has replayed that position, otherwise it goes to the writer, so a client always sees its own
+ * writes. The check and the read run in one transaction: RDS Proxy may run each autocommit statement on a
+ * different backend, and a reader endpoint spreads its backends over replicas that lag by different amounts, so
+ * only a transaction keeps both on the replica that was checked. A replica that reports no replay position, such
+ * as an Aurora reader, is never considered caught up, and those reads go to the writer.
+ */
+public class ReadWriteRouter {
+
+    private static final String REPLAY_QUERY = "SELECT pg_is_in_recovery(), pg_last_wal_replay_lsn()";
+
+    private final ConnectionPool writer;
+    private final ConnectionPool reader;
+
+    /**
+     * @param reader pool for read-only work, or null to send reads to the writer
+     */
+    public ReadWriteRouter(ConnectionPool writer, ConnectionPool reader) {
+        this.writer = writer;
+        this.reader = reader;
+    }
+
+    /**
+     * Route reads to a pool on {@code READER_HOST} when it is set. The reader pool uses the same
+     * {@link PoolConfig#fromEnv() settings} as the writer.
+     *
+     * @param readerFactory creates the connection factory for the reader host
+     */
+    public static ReadWriteRouter fromEnv(ConnectionPool writer, Function<String, ConnectionFactory> readerFactory) {
+        String readerHost = System.getenv("READER_HOST");
+        if (readerHost == null || readerHost.isBlank()) {
+            return new ReadWriteRouter(writer, null);
+        }
+        return new ReadWriteRouter(writer, new ConnectionPool(PoolConfig.fromEnv(), readerFactory.apply(readerHost.trim())));
+    }
+
+    public <T> T write(SqlWork<T> work) throws SQLException {
+        return writer.withConnection(work);
+    }
+
+    /**
+     * Run read-only work, on the reader if it has caught up with the session token.
+     *
+     * @param sessionToken the {@link SessionLsn#HEADER} sent by the client, or null
+     * @throws IllegalArgumentException if the token is not an LSN
+     */
+    public <T> T read(String sessionToken, SqlWork<T> work) throws SQLException {
+        if (reader == null) {
+            return onWriter(work);
+        }
+        if (sessionToken == null || sessionToken.isBlank()) {
+            InvocationMetrics.increment(Counter.REPLICA_READ);
+            return reader.withConnection(work);
+        }
+
+        long required = SessionLsn.parse(sessionToken.trim());
+        Served<T> served = reader.withConnection(connection -> {
+            connection.setAutoCommit(false);
+            try {
+                Served<T> result = caughtUp(connection, required) ? new Served<>(work.execute(connection)) : null;
+                connection.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        });
+        if (served != null) {
+            InvocationMetrics.increment(Counter.REPLICA_READ);
+            return served.value();
+        }
+        return onWriter(work);
+    }
+
+    /**
+     * Open a connection to the writer and the reader ahead of the first request.
+     */
+    public void warmUp() {
+        writer.warmUp();
+        if (reader != null) {
+            reader.warmUp();
+        }
+    }
+
+    public void evictIdle() {
+        writer.evictIdle();
+        if (reader != null) {
+            reader.evictIdle();
+        }
+    }
+
+    private <T> T onWriter(SqlWork<T> work) throws SQLException {
+        InvocationMetrics.increment(Counter.WRITER_READ);
+        return writer.withConnection(work);
+    }
+
+    private static boolean caughtUp(Connection connection, long required) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(REPLAY_QUERY);
+             ResultSet rs = stmt.executeQuery()) {
+            rs.next();
+            if (!rs.getBoolean(1)) {
+                // not a standby: preferSecondary fell back to the primary, which has every commit
+                return true;
+            }
+            String replayed = rs.getString(2);
+            return replayed != null && SessionLsn.parse(replayed) >= required;
+        }
+    }
+
+    private record Served<T>(T value) {
+    }
+}
@@ -0,0 +1,71 @@
+package cloud.localstack.db.pool;
+
+import cloud.localstack.db.apigw.ApiResponse;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Read-your-writes tokens. A write answers with the writer's WAL position after its commit in the
+ * {@value #HEADER} header, and a client that sends it back on a read is served from a replica only once that
+ * replica has replayed up to it, see {@link ReadWriteRouter}. The token is the LSN in PostgreSQL's text form,
+ * such as {@code 0/16B3748}.
+ * <p>
+ * Writers only add the header when {@code SESSION_LSN_ENABLED} is true, because reading the position costs a
+ * round trip.
+ */
+public final class SessionLsn {
+
+    public static final String HEADER = "X-Session-LSN";
+
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getenv("SESSION_LSN_ENABLED"));
+    private static final String CURRENT_LSN_QUERY = "SELECT pg_current_wal_lsn()";
+
+    private SessionLsn() {
+    }
+
+    /**
+     * Add the writer's current position to the response of a committed write. Runs after the write's own
+     * connection work, so the position includes its commit record. If the position cannot be read the response
+     * goes out without it; the write has already succeeded.
+     */
+    public static ApiResponse tag(ApiResponse response, ConnectionPool writer) {
+        if (!ENABLED) {
+            return response;
+        }
+        try {
+            String lsn = writer.withConnection(connection -> {
+                try (PreparedStatement stmt = connection.prepareStatement(CURRENT_LSN_QUERY);
+                     ResultSet rs = stmt.executeQuery()) {
+                    rs.next();
+                    return rs.getString(1);
+                }
+            });
+            return response.withHeader(HEADER, lsn);
+        } catch (SQLException | RuntimeException e) {
+            System.out.println("Could not read the session LSN: " + e.getMessage());
+            return response;
+        }
+    }
+
+    /**
+     * Parse a PostgreSQL LSN ({@code <high hex>/<low hex>}) into a comparable number.
+     */
+    public static long parse(String lsn) {
+        int slash = lsn.indexOf('/');
+        if (slash < 1 || slash == lsn.length() - 1) {
+            throw new IllegalArgumentException("Invalid " + HEADER + ": " + lsn);
+        }
+        try {
+            long high = Long.parseLong(lsn.substring(0, slash).trim(), 16);
+            long low = Long.parseLong(lsn.substring(slash + 1).trim(), 16);
+            if (high > 0xFFFFFFFFL || low > 0xFFFFFFFFL || high < 0 || low < 0) {
+                throw new IllegalArgumentException("Invalid " + HEADER + ": " + lsn);
+            }
+            return high << 32 | low;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + HEADER + ": " + lsn, e);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package cloud.localstack.db.pool;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Unit of work executed against a pooled connection.
+ */
+@FunctionalInterface
+public interface SqlWork<T> {
+
+    T execute(Connection connection) throws SQLException;
+}
@@ -0,0 +1,247 @@
+package cloud.localstack.db.pool;
+
+import org.postgresql.PGStatement;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Prepared statements of one physical connection, kept open and reused across leases. Closing a statement
+ * handed out by {@link #prepare} returns it to the cache; the least recently used statements are closed once
+ * the cache is full. Every statement gets the prepare threshold of the configured {@link StatementMode}.
+ * <p>
+ * Only used by the thread holding the lease, so it is not synchronized.
+ */
+class StatementCache {
+
+    private final Connection physical;
+    private final StatementMode mode;
+    private final PinningStats pinning;
+    private final int capacity;
+    private final Map<String, CachedStatement> statements;
+
+    StatementCache(Connection physical, StatementMode mode, int capacity, PinningStats pinning) {
+        this.physical = physical;
+        this.mode = mode;
+        this.pinning = pinning;
+        this.capacity = capacity;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                if (size() <= capacity) {
+                    return false;
+                }
+                eldest.getValue().evict();
+                return true;
+            }
+        };
+    }
+
+    /**
+     * A statement for the SQL, reused if one is cached and not currently open elsewhere in the lease.
+     */
+    PreparedStatement prepare(String sql, Connection lease) throws SQLException {
+        if (capacity == 0) {
+            pinning.inspect(sql);
+            return (PreparedStatement) track(configure(physical.prepareStatement(sql)), lease);
+        }
+        CachedStatement cached = statements.get(sql);
+        if (cached != null && !cached.inUse) {
+            pinning.statementCacheHit();
+            return cached.open(lease);
+        }
+        pinning.statementCacheMiss();
+        PreparedStatement statement = configure(physical.prepareStatement(sql));
+        if (cached != null) {
+            // the cached one is still open, this one is closed for real when the caller is done with it
+            pinning.inspect(sql);
+            return (PreparedStatement) track(statement, lease);
+        }
+        CachedStatement fresh = new CachedStatement(sql, statement);
+        statements.put(sql, fresh);
+        return fresh.open(lease);
+    }
+
+    /**
+     * Apply the statement mode to a statement that is not cached, e.g. one returning generated keys.
+     */
+    <S extends Statement> S configure(S statement) throws SQLException {
+        if (statement.isWrapperFor(PGStatement.class)) {
+            statement.unwrap(PGStatement.class).setPrepareThreshold(mode.prepareThreshold);
+        }
+        return statement;
+    }
+
+    /**
+     * Wrap a statement that is closed normally, so its SQL is still checked for pinning.
+     */
+    Statement track(Statement statement, Connection lease) {
+        Class<?> type = statement instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+        return (Statement) Proxy.newProxyInstance(StatementCache.class.getClassLoader(), new Class<?>[]{type},
+                new StatementHandler(statement, lease, null));
+    }
+
+    /**
+     * Take back statements the borrower did not close, when the connection returns to the pool.
+     */
+    void releaseAll() throws SQLException {
+        for (CachedStatement cached : new ArrayList<>(statements.values())) {
+            if (cached.inUse) {
+                cached.release();
+            }
+        }
+    }
+
+    /**
+     * Close every cached statement, when the physical connection is discarded.
+     */
+    void closeAll() {
+        List<CachedStatement> all = new ArrayList<>(statements.values());
+        statements.clear();
+        all.forEach(CachedStatement::evict);
+    }
+
+    private final class CachedStatement {
+
+        private final String sql;
+        private final PreparedStatement statement;
+        private final int fetchSize;
+        private final int maxRows;
+        private final int queryTimeout;
+        private final int fetchDirection;
+        private boolean inUse;
+        private boolean evicted;
+        private boolean serverPrepared;
+
+        CachedStatement(String sql, PreparedStatement statement) throws SQLException {
+            this.sql = sql;
+            this.statement = statement;
+            this.fetchSize = statement.getFetchSize();
+            this.maxRows = statement.getMaxRows();
+            this.queryTimeout = statement.getQueryTimeout();
+            this.fetchDirection = statement.getFetchDirection();
+        }
+
+        PreparedStatement open(Connection lease) {
+            inUse = true;
+            pinning.inspect(sql);
+            return (PreparedStatement) Proxy.newProxyInstance(StatementCache.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, new StatementHandler(statement, lease, this));
+        }
+
+        /**
+         * Back into the cache, without any state a later borrower could see.
+         */
+        void release() throws SQLException {
+            inUse = false;
+            if (evicted) {
+                statement.close();
+                return;
+            }
+            ResultSet open = statement.getResultSet();
+            if (open != null) {
+                open.close();
+            }
+            statement.clearParameters();
+            statement.clearBatch();
+            statement.clearWarnings();
+            // the driver keeps these on the client, so restoring them costs no round trip
+            statement.setFetchSize(fetchSize);
+            statement.setMaxRows(maxRows);
+            statement.setQueryTimeout(queryTimeout);
+            statement.setFetchDirection(fetchDirection);
+        }
+
+        void evict() {
+            evicted = true;
+            if (!inUse) {
+                try {
+                    statement.close();
+                } catch (SQLException ignored) {
+                    // the statement is discarded anyway
+                }
+            }
+        }
+
+        void executed() throws SQLException {
+            if (!serverPrepared && statement.isWrapperFor(PGStatement.class)
+                    && statement.unwrap(PGStatement.class).isUseServerPrepare()) {
+                serverPrepared = true;
+                pinning.serverPrepare();
+            }
+        }
+    }
+
+    /**
+     * Hands out the lease instead of the physical connection, checks executed SQL for pinning and, for cached
+     * statements, turns {@code close} into a return to the cache.
+     */
+    private final class StatementHandler implements InvocationHandler {
+
+        private final Statement statement;
+        private final Connection lease;
+        private final CachedStatement cached;
+        private boolean closed;
+
+        StatementHandler(Statement statement, Connection lease, CachedStatement cached) {
+            this.statement = statement;
+            this.lease = lease;
+            this.cached = cached;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        if (cached != null) {
+                            cached.release();
+                        } else {
+                            statement.close();
+                        }
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || statement.isClosed();
+                case "getConnection":
+                    return lease;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return statement.toString();
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("Statement is closed", "HY010");
+            }
+            if ((name.startsWith("execute") || name.equals("addBatch")) && args != null && args[0] instanceof String sql) {
+                pinning.inspect(sql);
+            }
+            try {
+                Object result = method.invoke(statement, args);
+                if (cached != null && name.startsWith("execute")) {
+                    cached.executed();
+                }
+                return result;
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
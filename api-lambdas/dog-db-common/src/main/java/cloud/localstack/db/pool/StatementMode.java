@@ -0,0 +1,38 @@
+package cloud.localstack.db.pool;
+
+import java.util.Locale;
+
+/**
+ * How prepared statements are executed on pooled connections.
+ */
+public enum StatementMode {
+
+    /**
+     * Never use server-side (named) prepared statements, so RDS Proxy can keep multiplexing the client
+     * connection. Statements are still cached and reused on the client, which saves the driver-side work.
+     */
+    PROXY_SAFE(0),
+
+    /**
+     * Server-side prepare from the first execution for connections that go straight to the database, where
+     * reusing the parsed and planned statement is free of pinning.
+     */
+    DIRECT(1);
+
+    final int prepareThreshold;
+
+    StatementMode(int prepareThreshold) {
+        this.prepareThreshold = prepareThreshold;
+    }
+
+    /**
+     * Parse {@code proxy-safe} or {@code direct}, case-insensitively.
+     */
+    public static StatementMode parse(String value) {
+        return switch (value.trim().toLowerCase(Locale.ROOT)) {
+            case "proxy-safe", "proxy_safe" -> PROXY_SAFE;
+            case "direct" -> DIRECT;
+            default -> throw new IllegalArgumentException("Unknown statement mode: " + value);
+        };
+    }
+}
@@ -0,0 +1,159 @@
+package cloud.localstack.db.runtime;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.RequestStreamHandler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Custom runtime for {@code provided.al2023}: the {@code bootstrap} of the native build. It creates the
+ * function's configured handler ({@code _HANDLER}) and then runs the Lambda Runtime API loop that the
+ * {@code java21} runtime runs otherwise, fetching the next event, invoking the handler and posting its response
+ * or error. Stream handlers get the raw event and {@code RequestHandler}s a map parsed with Jackson.
+ * <p>
+ * It runs on a JVM just as well, which is how the load harness compares the native and JVM builds against its
+ * stand-in runtime API. Usage: {@code LambdaRuntime [handler class]}, defaulting to {@code _HANDLER}.
+ */
+public final class LambdaRuntime {
+
+    private static final String API_VERSION = "2018-06-01";
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final String runtimeUrl;
+
+    LambdaRuntime(String runtimeApi) {
+        this.runtimeUrl = "http://" + runtimeApi + "/" + API_VERSION + "/runtime";
+    }
+
+    public static void main(String[] args) throws IOException {
+        String runtimeApi = System.getenv("AWS_LAMBDA_RUNTIME_API");
+        String handlerClass = args.length > 0 ? args[0] : System.getenv("_HANDLER");
+        if (runtimeApi == null || handlerClass == null) {
+            System.out.println("Usage: LambdaRuntime [handler class], with AWS_LAMBDA_RUNTIME_API and _HANDLER set");
+            System.exit(2);
+        }
+
+        LambdaRuntime runtime = new LambdaRuntime(runtimeApi);
+        Invoker invoker;
+        try {
+            invoker = invoker(handlerClass);
+        } catch (Throwable e) {
+            e.printStackTrace();
+            runtime.post(runtime.runtimeUrl + "/init/error", errorBody(e));
+            System.exit(1);
+            return;
+        }
+        runtime.loop(invoker);
+    }
+
+    /**
+     * Serve invocations until the runtime API goes away, which ends the process.
+     */
+    void loop(Invoker invoker) throws IOException {
+        while (true) {
+            HttpURLConnection next = open(runtimeUrl + "/invocation/next", "GET");
+            // the call blocks until the next event arrives, however long the container stays idle
+            next.setReadTimeout(0);
+            byte[] event;
+            try (InputStream in = next.getInputStream()) {
+                event = in.readAllBytes();
+            }
+            String requestId = next.getHeaderField("Lambda-Runtime-Aws-Request-Id");
+            String traceId = next.getHeaderField("Lambda-Runtime-Trace-Id");
+            if (traceId != null) {
+                System.setProperty("com.amazonaws.xray.traceHeader", traceId);
+            }
+            Context context = new RuntimeContext(requestId,
+                    parseLong(next.getHeaderField("Lambda-Runtime-Deadline-Ms")),
+                    next.getHeaderField("Lambda-Runtime-Invoked-Function-Arn"));
+
+            String invocationUrl = runtimeUrl + "/invocation/" + requestId;
+            byte[] response;
+            try {
+                response = invoker.invoke(event, context);
+            } catch (Throwable e) {
+                e.printStackTrace();
+                post(invocationUrl + "/error", errorBody(e));
+                continue;
+            }
+            post(invocationUrl + "/response", response);
+        }
+    }
+
+    /**
+     * Create the handler; a method name after {@code ::} is ignored, as every handler has one entry point.
+     */
+    static Invoker invoker(String handlerClass) throws ReflectiveOperationException {
+        int method = handlerClass.indexOf("::");
+        String className = method < 0 ? handlerClass : handlerClass.substring(0, method);
+        Object handler = Class.forName(className).getDeclaredConstructor().newInstance();
+
+        if (handler instanceof RequestStreamHandler streamHandler) {
+            return (event, context) -> {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                streamHandler.handleRequest(new ByteArrayInputStream(event), out, context);
+                return out.toByteArray();
+            };
+        }
+        if (handler instanceof RequestHandler<?, ?>) {
+            @SuppressWarnings("unchecked")
+            RequestHandler<Map<?, ?>, Object> mapHandler = (RequestHandler<Map<?, ?>, Object>) handler;
+            return (event, context) -> objectMapper.writeValueAsBytes(
+                    mapHandler.handleRequest(objectMapper.readValue(event, Map.class), context));
+        }
+        throw new IllegalArgumentException(className + " is neither a RequestStreamHandler nor a RequestHandler");
+    }
+
+    private void post(String url, byte[] body) throws IOException {
+        HttpURLConnection connection = open(url, "POST");
+        connection.setDoOutput(true);
+        connection.setFixedLengthStreamingMode(body.length);
+        if (url.endsWith("/error")) {
+            connection.setRequestProperty("Lambda-Runtime-Function-Error-Type", "Unhandled");
+        }
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(body);
+        }
+        int status = connection.getResponseCode();
+        try (InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+            if (in != null) {
+                in.readAllBytes();
+            }
+        }
+        if (status >= 400) {
+            System.out.println("Runtime API answered " + status + " to " + url);
+        }
+    }
+
+    private static HttpURLConnection open(String url, String method) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) URI.create(url).toURL().openConnection();
+        connection.setRequestMethod(method);
+        return connection;
+    }
+
+    private static byte[] errorBody(Throwable e) throws IOException {
+        Map<String, Object> error = new LinkedHashMap<>();
+        error.put("errorMessage", String.valueOf(e.getMessage()));
+        error.put("errorType", e.getClass().getName());
+        return objectMapper.writeValueAsBytes(error);
+    }
+
+    private static long parseLong(String value) {
+        return value == null ? 0 : Long.parseLong(value);
+    }
+
+    @FunctionalInterface
+    interface Invoker {
+        byte[] invoke(byte[] event, Context context) throws Exception;
+    }
+}
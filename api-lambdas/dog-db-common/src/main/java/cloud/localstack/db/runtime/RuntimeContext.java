@@ -0,0 +1,101 @@
+package cloud.localstack.db.runtime;
+
+import com.amazonaws.services.lambda.runtime.ClientContext;
+import com.amazonaws.services.lambda.runtime.CognitoIdentity;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+
+/**
+ * The {@link Context} {@link LambdaRuntime} passes to handlers, built from the invocation's runtime API headers
+ * and the function's environment.
+ */
+final class RuntimeContext implements Context {
+
+    private static final String FUNCTION_NAME = System.getenv("AWS_LAMBDA_FUNCTION_NAME");
+    private static final String FUNCTION_VERSION = System.getenv("AWS_LAMBDA_FUNCTION_VERSION");
+    private static final String LOG_GROUP_NAME = System.getenv("AWS_LAMBDA_LOG_GROUP_NAME");
+    private static final String LOG_STREAM_NAME = System.getenv("AWS_LAMBDA_LOG_STREAM_NAME");
+    private static final int MEMORY_LIMIT_MB = memoryLimit();
+
+    private static final LambdaLogger LOGGER = new LambdaLogger() {
+        @Override
+        public void log(String message) {
+            System.out.print(message);
+        }
+
+        @Override
+        public void log(byte[] message) {
+            System.out.write(message, 0, message.length);
+        }
+    };
+
+    private final String awsRequestId;
+    private final long deadlineMillis;
+    private final String invokedFunctionArn;
+
+    RuntimeContext(String awsRequestId, long deadlineMillis, String invokedFunctionArn) {
+        this.awsRequestId = awsRequestId;
+        this.deadlineMillis = deadlineMillis;
+        this.invokedFunctionArn = invokedFunctionArn;
+    }
+
+    @Override
+    public String getAwsRequestId() {
+        return awsRequestId;
+    }
+
+    @Override
+    public String getLogGroupName() {
+        return LOG_GROUP_NAME;
+    }
+
+    @Override
+    public String getLogStreamName() {
+        return LOG_STREAM_NAME;
+    }
+
+    @Override
+    public String getFunctionName() {
+        return FUNCTION_NAME;
+    }
+
+    @Override
+    public String getFunctionVersion() {
+        return FUNCTION_VERSION;
+    }
+
+    @Override
+    public String getInvokedFunctionArn() {
+        return invokedFunctionArn;
+    }
+
+    @Override
+    public CognitoIdentity getIdentity() {
+        return null;
+    }
+
+    @Override
+    public ClientContext getClientContext() {
+        return null;
+    }
+
+    @Override
+    public int getRemainingTimeInMillis() {
+        return (int) Math.max(0, deadlineMillis - System.currentTimeMillis());
+    }
+
+    @Override
+    public int getMemoryLimitInMB() {
+        return MEMORY_LIMIT_MB;
+    }
+
+    @Override
+    public LambdaLogger getLogger() {
+        return LOGGER;
+    }
+
+    private static int memoryLimit() {
+        String value = System.getenv("AWS_LAMBDA_FUNCTION_MEMORY_SIZE");
+        return value == null || value.isBlank() ? 128 : Integer.parseInt(value.trim());
+    }
+}
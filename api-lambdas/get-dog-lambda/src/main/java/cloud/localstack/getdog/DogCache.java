@@ -0,0 +1,100 @@
+package cloud.localstack.getdog;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-container LRU cache of serialized dogs. Entries expire after a TTL and are invalidated early when the
+ * {@link DogChangeListener} receives a change notification from the database.
+ * <p>
+ * A notification can arrive while a dog is being read, before it is cached. Loaders therefore take the id's
+ * {@link #generation} before reading, and {@link #put} stores nothing if the id was invalidated, or the cache
+ * cleared, in between.
+ */
+public class DogCache {
+
+    static final int DEFAULT_MAX_ENTRIES = 1000;
+    static final Duration DEFAULT_TTL = Duration.ofSeconds(60);
+
+    private final Duration ttl;
+    private final Map<String, CachedDog> entries;
+    private final Map<String, Long> invalidations;
+    private long counter;
+    private long epoch;
+
+    public DogCache(int maxEntries, Duration ttl) {
+        this.ttl = ttl;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedDog> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.invalidations = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                if (size() <= maxEntries) {
+                    return false;
+                }
+                // forgetting the id must not let a load that started before its invalidation through
+                epoch = Math.max(epoch, eldest.getValue());
+                return true;
+            }
+        };
+    }
+
+    public static DogCache fromEnv() {
+        String maxEntries = System.getenv("DOG_CACHE_MAX_ENTRIES");
+        String ttlSeconds = System.getenv("DOG_CACHE_TTL_SECONDS");
+        return new DogCache(
+                maxEntries == null || maxEntries.isBlank() ? DEFAULT_MAX_ENTRIES : Integer.parseInt(maxEntries.trim()),
+                ttlSeconds == null || ttlSeconds.isBlank()
+                        ? DEFAULT_TTL : Duration.ofSeconds(Long.parseLong(ttlSeconds.trim())));
+    }
+
+    /**
+     * Serialized dog and its entity tag.
+     */
+    public record CachedDog(String json, String etag, long expiresAtNanos) {
+    }
+
+    public synchronized CachedDog get(String id) {
+        CachedDog cached = entries.get(id);
+        if (cached != null && System.nanoTime() - cached.expiresAtNanos() > 0) {
+            entries.remove(id);
+            return null;
+        }
+        return cached;
+    }
+
+    /**
+     * The id's invalidation generation, to be taken before reading the dog and passed to {@link #put}.
+     */
+    public synchronized long generation(String id) {
+        return Math.max(epoch, invalidations.getOrDefault(id, 0L));
+    }
+
+    /**
+     * Cache the dog unless it was invalidated since {@code generation} was taken. Returns the entry either way,
+     * so the caller can still answer with what it read.
+     */
+    public synchronized CachedDog put(String id, String json, String etag, long generation) {
+        CachedDog cached = new CachedDog(json, etag, System.nanoTime() + ttl.toNanos());
+        if (generation(id) == generation) {
+            entries.put(id, cached);
+        }
+        return cached;
+    }
+
+    public synchronized void invalidate(String id) {
+        entries.remove(id);
+        invalidations.put(id, ++counter);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        invalidations.clear();
+        epoch = ++counter;
+    }
+}
@@ -0,0 +1,127 @@
+package cloud.localstack.getdog;
+
+import cloud.localstack.db.auth.SecretCache;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Listens on the {@code dog_changes} channel, fed by a trigger on {@code dogs}, and evicts changed dogs from
+ * the {@link DogCache}. The listener runs on a daemon thread; while the container is frozen nothing is
+ * received, which is why cache entries also carry a TTL.
+ */
+public class DogChangeListener implements Runnable {
+
+    static final String CHANNEL = "dog_changes";
+    private static final int POLL_TIMEOUT_MILLIS = 10_000;
+    private static final long RECONNECT_DELAY_MILLIS = 5_000;
+
+    private final DogCache cache;
+    private final String region;
+    private final String secretArn;
+    private final String jdbcUrl;
+    private final Object pauseLock = new Object();
+    private boolean paused;
+    private volatile Connection current;
+
+    public DogChangeListener(DogCache cache, String region, String secretArn, String host, String databaseName) {
+        this.cache = cache;
+        this.region = region;
+        this.secretArn = secretArn;
+        this.jdbcUrl = String.format("jdbc:postgresql://%s/%s", host, databaseName);
+    }
+
+    public void start() {
+        Thread thread = new Thread(this, "dog-change-listener");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Close the listening connection and stop reconnecting until {@link #resume()} is called.
+     */
+    public void pause() {
+        synchronized (pauseLock) {
+            paused = true;
+        }
+        Connection connection = current;
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException ignored) {
+                // the listener loop notices the closed connection and waits for resume()
+            }
+        }
+    }
+
+    public void resume() {
+        synchronized (pauseLock) {
+            paused = false;
+            pauseLock.notifyAll();
+        }
+    }
+
+    @Override
+    public void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                awaitResumed();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            try (Connection connection = SecretCache.getInstance().connect(region, secretArn,
+                    creds -> DriverManager.getConnection(jdbcUrl, creds.username(), creds.password()))) {
+                current = connection;
+                try (Statement stmt = connection.createStatement()) {
+                    stmt.execute("LISTEN " + CHANNEL);
+                }
+                // anything may have changed while we were not listening
+                cache.clear();
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (!Thread.currentThread().isInterrupted()) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MILLIS);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        cache.invalidate(notification.getParameter());
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                cache.clear();
+                if (isPaused()) {
+                    continue;
+                }
+                System.out.println("Dog change listener disconnected: " + e.getMessage());
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MILLIS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            } finally {
+                current = null;
+            }
+        }
+    }
+
+    private boolean isPaused() {
+        synchronized (pauseLock) {
+            return paused;
+        }
+    }
+
+    private void awaitResumed() throws InterruptedException {
+        synchronized (pauseLock) {
+            while (paused) {
+                pauseLock.wait();
+            }
+        }
+    }
+}
@@ -1,5 +1,15 @@
 package cloud.localstack.getdog;
 
+import cloud.localstack.db.apigw.ApiInvocation;
+import cloud.localstack.db.apigw.ApiRequest;
+import cloud.localstack.db.apigw.ApiResponse;
+import cloud.localstack.db.aws.EndpointOverride;
+import cloud.localstack.db.aws.HttpClients;
+import cloud.localstack.db.lifecycle.Priming;
+import cloud.localstack.db.metrics.Counter;
+import cloud.localstack.db.metrics.InvocationMetrics;
+import cloud.localstack.db.metrics.Phase;
+import cloud.localstack.db.lifecycle.SnapStartLifecycle;
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -15,56 +25,148 @@ import java.util.Map;
 
 public class GetDogHandler implements RequestHandler<Map<String, Object>, Map<String, Object>> {
 
+    static final String FUNCTION_NAME = "get-dog";
     private static final ObjectMapper objectMapper = new ObjectMapper();
     private static final String SECRET_ARN = System.getenv("SECRET_ARN");
     private static final String DATABASE_NAME = System.getenv("DATABASE_NAME");
     private static final String DB_CLUSTER_ARN = System.getenv("DB_CLUSTER_ARN");
-    private final RdsDataClient rdsDataClient;
+    private static final String REGION = System.getenv("AWS_REGION");
+    private static final String LISTEN_HOST = System.getenv("LISTEN_HOST");
 
-    public GetDogHandler() {
-        this.rdsDataClient = RdsDataClient.create();
+    private static final DogCache cache = DogCache.fromEnv();
+    // one client per container, shared by every handler instance
+    private static final RdsDataClient rdsDataClient = EndpointOverride.apply(RdsDataClient.builder())
+            .httpClient(HttpClients.urlConnection())
+            .build();
+
+    static {
+        SnapStartLifecycle lifecycle = SnapStartLifecycle.getInstance()
+                .onPrime(Priming.jackson(objectMapper))
+                .onPrime(Priming.apiEventCodec())
+                .onPrime(GetDogHandler::primeDataApi)
+                .onRestore(cache::clear);
+
+        // without a listener, cached dogs are only dropped when their TTL expires
+        if (LISTEN_HOST != null && !LISTEN_HOST.isBlank()) {
+            DogChangeListener listener = new DogChangeListener(cache, REGION, SECRET_ARN, LISTEN_HOST, DATABASE_NAME);
+            listener.start();
+            lifecycle.onCheckpoint(listener::pause).onRestore(listener::resume);
+        }
     }
 
     @Override
     public Map<String, Object> handleRequest(Map<String, Object> event, Context context) {
+        return ApiInvocation.handle(FUNCTION_NAME, event, this::handle);
+    }
+
+    /**
+     * Shared by this handler and {@link GetDogStreamHandler}.
+     */
+    ApiResponse handle(ApiRequest request) {
         try {
             // Extract path parameter from API Gateway
-            Map<String, Object> pathParameters = (Map<String, Object>) event.get("pathParameters");
-            if (pathParameters == null || !pathParameters.containsKey("id")) {
-                return Map.of("statusCode", 400, "body", "Missing 'id' in path parameters");
+            String pathId = request.pathParameter("id");
+            if (pathId == null) {
+                return ApiResponse.of(400, "Missing 'id' in path parameters");
             }
-            String dogId = pathParameters.get("id").toString();
+            String dogId = normalizeId(pathId);
 
-            String sql = "SELECT id, name, age, category FROM dogs WHERE id = :id";
+            DogCache.CachedDog dog = cache.get(dogId);
+            InvocationMetrics.increment(dog != null ? Counter.CACHE_HIT : Counter.CACHE_MISS);
+            if (dog == null) {
+                dog = loadDog(dogId);
+                if (dog == null) {
+                    return ApiResponse.of(404, "Dog not found");
+                }
+            }
 
-            ExecuteStatementRequest request = ExecuteStatementRequest.builder()
-                    .database(DATABASE_NAME)
-                    .resourceArn(DB_CLUSTER_ARN)
-                    .secretArn(SECRET_ARN)
-                    .sql(sql)
-                    .parameters(
-                            SqlParameter.builder().name("id").value(Field.builder().stringValue(dogId).build()).build()
-                    )
-                    .build();
+            if (etagMatches(request.header("If-None-Match"), dog.etag())) {
+                return ApiResponse.of(304, "").withHeader("ETag", dog.etag());
+            }
+            return ApiResponse.json(200, dog.json()).withHeader("ETag", dog.etag());
+        } catch (Exception e) {
+            return ApiResponse.of(500, "Error processing request: " + e.getMessage());
+        }
+    }
 
-            ExecuteStatementResponse response = rdsDataClient.executeStatement(request);
+    /**
+     * Read the dog through the Data API and cache it with its row version as ETag, so the tag can be sent
+     * back to put-dog in If-Match. Returns null if the dog does not exist. The cache generation is taken before
+     * the read, so a change notified while the read is in flight keeps the row out of the cache.
+     */
+    private DogCache.CachedDog loadDog(String dogId) throws Exception {
+        String sql = "SELECT id, name, age, category, version FROM dogs WHERE id = :id";
 
-            if (response.records().isEmpty()) {
-                return Map.of("statusCode", 404, "body", "Dog not found");
-            }
+        ExecuteStatementRequest request = ExecuteStatementRequest.builder()
+                .database(DATABASE_NAME)
+                .resourceArn(DB_CLUSTER_ARN)
+                .secretArn(SECRET_ARN)
+                .sql(sql)
+                .parameters(
+                        SqlParameter.builder().name("id").value(Field.builder().stringValue(dogId).build()).build()
+                )
+                .build();
 
-            Map<String, Object> dog = new HashMap<>();
-            List<Field> record = response.records().get(0);
+        long generation = cache.generation(dogId);
+        long start = System.nanoTime();
+        ExecuteStatementResponse response = rdsDataClient.executeStatement(request);
+        InvocationMetrics.record(Phase.SQL_EXECUTE, System.nanoTime() - start);
 
+        if (response.records().isEmpty()) {
+            return null;
+        }
 
-            dog.put("id", record.get(0).longValue());
-            dog.put("name", record.get(1).stringValue());
-            dog.put("age", record.get(2).longValue());
-            dog.put("category", record.get(3).stringValue());
+        Map<String, Object> dog = new HashMap<>();
+        List<Field> record = response.records().get(0);
 
-            return Map.of("statusCode", 200, "body", objectMapper.writeValueAsString(dog));
-        } catch (Exception e) {
-            return Map.of("statusCode", 500, "body", "Error processing request: " + e.getMessage());
+        dog.put("id", record.get(0).longValue());
+        dog.put("name", record.get(1).stringValue());
+        dog.put("age", record.get(2).longValue());
+        dog.put("category", record.get(3).stringValue());
+
+        String etag = "\"" + record.get(4).longValue() + "\"";
+        start = System.nanoTime();
+        String json = objectMapper.writeValueAsString(dog);
+        InvocationMetrics.record(Phase.SERIALIZATION, System.nanoTime() - start);
+        return cache.put(dogId, json, etag, generation);
+    }
+
+    /**
+     * Round-trip a trivial statement so the SDK's HTTP client, signer and marshallers are initialized.
+     */
+    private static void primeDataApi() {
+        rdsDataClient.executeStatement(ExecuteStatementRequest.builder()
+                .database(DATABASE_NAME)
+                .resourceArn(DB_CLUSTER_ARN)
+                .secretArn(SECRET_ARN)
+                .sql("SELECT 1")
+                .build());
+    }
+
+    /**
+     * Cache keys must match the ids sent by the change trigger, so "007" and "7" map to the same entry.
+     */
+    private static String normalizeId(String id) {
+        try {
+            return Long.toString(Long.parseLong(id.trim()));
+        } catch (NumberFormatException e) {
+            return id;
+        }
+    }
+
+    private static boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
         }
+        return false;
     }
 }
@@ -0,0 +1,27 @@
+package cloud.localstack.importexport;
+
+import cloud.localstack.db.auth.SecretCache;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+
+public class DatabaseUtil {
+
+    /**
+     * Get database connection using username and password retrieved from AWS Secrets Manager.
+     * The secret is cached and refreshed if the database rejects the login after a rotation.
+     */
+    public static Connection getConnectionWithUserPassword(String region, String dbSecretArn, String host, String databaseName) {
+        String jdbcUrl = String.format("jdbc:postgresql://%s/%s",
+                host, databaseName);
+
+        try {
+            return SecretCache.getInstance().connect(region, dbSecretArn,
+                    creds -> DriverManager.getConnection(jdbcUrl, creds.username(), creds.password()));
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new RuntimeException("Database connection failed using username/password", e);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package cloud.localstack.importexport;
+
+import cloud.localstack.db.apigw.DogPayload;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Moves the {@code dogs} table in and out of the database with {@code COPY}, streaming in chunks of
+ * {@link #chunkBytes} so memory use does not grow with the number of rows.
+ * <p>
+ * CSV imports need a {@code name,age,category} header and go straight to {@code COPY FROM STDIN}; NDJSON
+ * imports are validated line by line and converted to CSV on the way. Either way the import is one
+ * {@code COPY} statement, so a bad row rejects the whole file. Exports write {@code id, name, age, category,
+ * version} in id order.
+ */
+public class DogCopy {
+
+    static final int DEFAULT_CHUNK_BYTES = 64 * 1024;
+
+    private static final String CSV_IMPORT = "COPY dogs (name, age, category) FROM STDIN WITH (FORMAT csv, HEADER)";
+    private static final String NDJSON_IMPORT = "COPY dogs (name, age, category) FROM STDIN WITH (FORMAT csv)";
+    private static final String CSV_EXPORT = "COPY (SELECT id, name, age, category, version FROM dogs ORDER BY id) " +
+            "TO STDOUT WITH (FORMAT csv, HEADER)";
+    // row_to_json escapes control characters, so the JSON never contains the quote or delimiter picked here
+    // and COPY writes each row verbatim
+    private static final String NDJSON_EXPORT = "COPY (SELECT row_to_json(d) FROM " +
+            "(SELECT id, name, age, category, version FROM dogs ORDER BY id) d) " +
+            "TO STDOUT WITH (FORMAT csv, QUOTE E'\\x01', DELIMITER E'\\x02')";
+
+    private final int chunkBytes;
+
+    public DogCopy(int chunkBytes) {
+        this.chunkBytes = chunkBytes;
+    }
+
+    public static DogCopy fromEnv() {
+        String chunkBytes = System.getenv("COPY_CHUNK_BYTES");
+        return new DogCopy(chunkBytes == null || chunkBytes.isBlank()
+                ? DEFAULT_CHUNK_BYTES : Integer.parseInt(chunkBytes.trim()));
+    }
+
+    /**
+     * Write every dog to the stream and return the number of rows. The stream is flushed, not closed.
+     */
+    public long exportTo(Connection connection, TransferRequest.Format format, OutputStream out)
+            throws SQLException, IOException {
+        BufferedOutputStream chunked = new BufferedOutputStream(out, chunkBytes);
+        long rows = copyManager(connection)
+                .copyOut(format == TransferRequest.Format.CSV ? CSV_EXPORT : NDJSON_EXPORT, chunked);
+        chunked.flush();
+        return rows;
+    }
+
+    /**
+     * Insert the dogs read from the stream and return the number of rows.
+     */
+    public long importFrom(Connection connection, TransferRequest.Format format, InputStream in)
+            throws SQLException, IOException {
+        CopyManager copyManager = copyManager(connection);
+        if (format == TransferRequest.Format.CSV) {
+            return copyManager.copyIn(CSV_IMPORT, in, chunkBytes);
+        }
+
+        CopyIn copyIn = copyManager.copyIn(NDJSON_IMPORT);
+        try {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), chunkBytes);
+            StringBuilder chunk = new StringBuilder(chunkBytes + 256);
+            long lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                appendRow(chunk, line, lineNumber);
+                if (chunk.length() >= chunkBytes) {
+                    writeChunk(copyIn, chunk);
+                }
+            }
+            writeChunk(copyIn, chunk);
+            return copyIn.endCopy();
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+    }
+
+    private static void appendRow(StringBuilder chunk, String line, long lineNumber) {
+        DogPayload dog;
+        try {
+            dog = DogPayload.parse(line);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Line " + lineNumber + ": " + e.getMessage(), e);
+        }
+        if (dog.name() == null || dog.age() == null || dog.category() == null) {
+            throw new IllegalArgumentException("Line " + lineNumber + ": All fields (name, age, category) are required.");
+        }
+        double age = dog.age();
+        if (age < 0 || age > Integer.MAX_VALUE || age != Math.rint(age)) {
+            throw new IllegalArgumentException("Line " + lineNumber + ": age must be a non-negative whole number.");
+        }
+        appendCsv(chunk, dog.name()).append(',').append((int) age).append(',');
+        appendCsv(chunk, dog.category()).append('\n');
+    }
+
+    private static CopyManager copyManager(Connection connection) throws SQLException {
+        return connection.unwrap(PGConnection.class).getCopyAPI();
+    }
+
+    private static void writeChunk(CopyIn copyIn, StringBuilder chunk) throws SQLException {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        byte[] bytes = chunk.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        chunk.setLength(0);
+    }
+
+    private static StringBuilder appendCsv(StringBuilder out, String value) {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                out.append('"');
+            }
+            out.append(c);
+        }
+        return out.append('"');
+    }
+}
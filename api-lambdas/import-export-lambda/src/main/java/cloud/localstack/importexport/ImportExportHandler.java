@@ -0,0 +1,113 @@
+package cloud.localstack.importexport;
+
+import cloud.localstack.db.aws.EndpointOverride;
+import cloud.localstack.db.aws.HttpClients;
+import cloud.localstack.db.metrics.InvocationMetrics;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Configuration;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Bulk import and export of the {@code dogs} table between the database and S3, invoked directly with a
+ * {@link TransferRequest}. Rows stream between {@code COPY} and S3 without being collected in memory: imports
+ * read the object as it downloads, exports upload it in {@link S3MultipartOutputStream} parts.
+ */
+public class ImportExportHandler implements RequestHandler<Map<String, Object>, Map<String, Object>> {
+
+    static final String FUNCTION_NAME = "import-export";
+    static final int DEFAULT_PART_SIZE_MB = 8;
+
+    private static final String SECRET_ARN = System.getenv("SECRET_ARN");
+    private static final String REGION = System.getenv("AWS_REGION");
+    private static final String DATABASE_NAME = System.getenv("DATABASE_NAME");
+    private static final String HOST = System.getenv("HOST");
+    private static final int PART_SIZE = partSizeFromEnv();
+
+    private static final S3Client s3 = EndpointOverride.apply(S3Client.builder())
+            .httpClient(HttpClients.urlConnection())
+            .serviceConfiguration(S3Configuration.builder()
+                    // LocalStack and other custom endpoints are addressed by path, not by bucket host name
+                    .pathStyleAccessEnabled(EndpointOverride.isActive())
+                    .build())
+            .build();
+
+    private static final DogCopy dogCopy = DogCopy.fromEnv();
+
+    @Override
+    public Map<String, Object> handleRequest(Map<String, Object> event, Context context) {
+        InvocationMetrics metrics = InvocationMetrics.begin(FUNCTION_NAME);
+        int statusCode = 500;
+        try {
+            TransferRequest request = TransferRequest.fromEvent(event);
+            metrics.method(request.action().name());
+            String location = "s3://" + request.bucket() + "/" + request.key();
+
+            long start = System.nanoTime();
+            long rows = request.action() == TransferRequest.Action.IMPORT ? importDogs(request) : exportDogs(request);
+            long millis = (System.nanoTime() - start) / 1_000_000;
+
+            String message = (request.action() == TransferRequest.Action.IMPORT
+                    ? "Imported " + rows + " dogs from " + location
+                    : "Exported " + rows + " dogs to " + location) + " in " + millis + " ms";
+            System.out.println(message);
+            statusCode = 200;
+            return Map.of("statusCode", statusCode, "rows", rows, "body", message);
+
+        } catch (IllegalArgumentException e) {
+            statusCode = 400;
+            return Map.of("statusCode", statusCode, "body", "Invalid request: " + e.getMessage());
+        } catch (SQLException | IOException | RuntimeException e) {
+            e.printStackTrace();
+            return Map.of("statusCode", statusCode, "body", "Error: " + e.getMessage());
+        } finally {
+            metrics.finish(statusCode);
+        }
+    }
+
+    private long importDogs(TransferRequest request) throws SQLException, IOException {
+        try (InputStream object = s3.getObject(get -> get.bucket(request.bucket()).key(request.key()));
+             InputStream in = request.gzip()
+                     ? new GZIPInputStream(object, DogCopy.DEFAULT_CHUNK_BYTES)
+                     : new BufferedInputStream(object, DogCopy.DEFAULT_CHUNK_BYTES);
+             Connection connection = getConnection()) {
+            return dogCopy.importFrom(connection, request.format(), in);
+        }
+    }
+
+    private long exportDogs(TransferRequest request) throws SQLException, IOException {
+        String contentType = request.gzip() ? "application/gzip" : request.format().contentType;
+        S3MultipartOutputStream upload = new S3MultipartOutputStream(s3, request.bucket(), request.key(),
+                contentType, PART_SIZE);
+        try (Connection connection = getConnection()) {
+            OutputStream out = request.gzip() ? new GZIPOutputStream(upload, DogCopy.DEFAULT_CHUNK_BYTES) : upload;
+            long rows = dogCopy.exportTo(connection, request.format(), out);
+            // completes the upload; GZIPOutputStream writes its trailer first
+            out.close();
+            return rows;
+        } catch (SQLException | IOException | RuntimeException e) {
+            upload.abort();
+            throw e;
+        }
+    }
+
+    private static Connection getConnection() {
+        return DatabaseUtil.getConnectionWithUserPassword(REGION, SECRET_ARN, HOST, DATABASE_NAME);
+    }
+
+    private static int partSizeFromEnv() {
+        String value = System.getenv("EXPORT_PART_SIZE_MB");
+        int megabytes = value == null || value.isBlank() ? DEFAULT_PART_SIZE_MB : Integer.parseInt(value.trim());
+        return megabytes * 1024 * 1024;
+    }
+}
@@ -0,0 +1,140 @@
+package cloud.localstack.importexport;
+
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Uploads what is written to it as an S3 object, one part at a time, so only a single part is held in memory.
+ * Objects smaller than one part are stored with a plain PUT.
+ * <p>
+ * {@link #close()} completes the upload. On failure call {@link #abort()} instead, otherwise the truncated
+ * output would be published as the object.
+ */
+class S3MultipartOutputStream extends OutputStream {
+
+    /**
+     * S3 requires every part but the last to be at least 5 MiB.
+     */
+    static final int MIN_PART_SIZE = 5 * 1024 * 1024;
+
+    private final S3Client s3;
+    private final String bucket;
+    private final String key;
+    private final String contentType;
+    private final byte[] buffer;
+    private final List<CompletedPart> parts = new ArrayList<>();
+    private int position;
+    private String uploadId;
+    private long bytesWritten;
+    private boolean closed;
+
+    S3MultipartOutputStream(S3Client s3, String bucket, String key, String contentType, int partSize) {
+        if (partSize < MIN_PART_SIZE) {
+            throw new IllegalArgumentException("partSize must be at least " + MIN_PART_SIZE + " bytes");
+        }
+        this.s3 = s3;
+        this.bucket = bucket;
+        this.key = key;
+        this.contentType = contentType;
+        this.buffer = new byte[partSize];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (position == buffer.length) {
+            uploadPart();
+        }
+        buffer[position++] = (byte) b;
+        bytesWritten++;
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        while (length > 0) {
+            if (position == buffer.length) {
+                uploadPart();
+            }
+            int count = Math.min(length, buffer.length - position);
+            System.arraycopy(bytes, offset, buffer, position, count);
+            position += count;
+            offset += count;
+            length -= count;
+            bytesWritten += count;
+        }
+    }
+
+    long bytesWritten() {
+        return bytesWritten;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (uploadId == null) {
+                s3.putObject(put -> put.bucket(bucket).key(key).contentType(contentType), body());
+                return;
+            }
+            if (position > 0) {
+                uploadPart();
+            }
+            s3.completeMultipartUpload(complete -> complete.bucket(bucket).key(key).uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(parts).build()));
+        } catch (IOException | RuntimeException e) {
+            abort();
+            throw new IOException("Could not finish the upload of s3://" + bucket + "/" + key, e);
+        }
+    }
+
+    /**
+     * Discard the parts uploaded so far. Nothing is published under the key.
+     */
+    void abort() {
+        closed = true;
+        if (uploadId == null) {
+            return;
+        }
+        try {
+            s3.abortMultipartUpload(abort -> abort.bucket(bucket).key(key).uploadId(uploadId));
+        } catch (RuntimeException e) {
+            System.out.println("Could not abort the upload of s3://" + bucket + "/" + key + ": " + e.getMessage());
+        }
+        uploadId = null;
+    }
+
+    /**
+     * The buffered bytes, streamed from the buffer rather than copied; the SDK reads them before the call returns.
+     */
+    private RequestBody body() {
+        return RequestBody.fromInputStream(new ByteArrayInputStream(buffer, 0, position), position);
+    }
+
+    private void uploadPart() throws IOException {
+        try {
+            if (uploadId == null) {
+                uploadId = s3.createMultipartUpload(create -> create.bucket(bucket).key(key).contentType(contentType))
+                        .uploadId();
+            }
+            int partNumber = parts.size() + 1;
+            UploadPartResponse response = s3.uploadPart(part -> part.bucket(bucket).key(key).uploadId(uploadId)
+                            .partNumber(partNumber).contentLength((long) position),
+                    body());
+            parts.add(CompletedPart.builder().partNumber(partNumber).eTag(response.eTag()).build());
+            position = 0;
+        } catch (RuntimeException e) {
+            throw new IOException("Could not upload part " + (parts.size() + 1) + " of s3://" + bucket + "/" + key, e);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package cloud.localstack.importexport;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * An import or export job, for example
+ * {@code {"action":"export","format":"ndjson","bucket":"dog-transfers","key":"exports/dogs.ndjson.gz","gzip":true}}.
+ * Imports read gzip when {@code gzip} is set or the key ends in {@code .gz}.
+ */
+public record TransferRequest(Action action, Format format, String bucket, String key, boolean gzip) {
+
+    public enum Action {
+        IMPORT, EXPORT
+    }
+
+    public enum Format {
+        CSV("text/csv"),
+        NDJSON("application/x-ndjson");
+
+        final String contentType;
+
+        Format(String contentType) {
+            this.contentType = contentType;
+        }
+    }
+
+    public static TransferRequest fromEvent(Map<String, Object> event) {
+        Action action = parse(Action.class, required(event, "action"));
+        Object format = event.get("format");
+        String bucket = required(event, "bucket");
+        String key = required(event, "key");
+        boolean gzip = Boolean.parseBoolean(String.valueOf(event.get("gzip")))
+                || (action == Action.IMPORT && key.endsWith(".gz"));
+        return new TransferRequest(action, format == null ? Format.CSV : parse(Format.class, format.toString()),
+                bucket, key, gzip);
+    }
+
+    private static String required(Map<String, Object> event, String name) {
+        Object value = event.get(name);
+        if (value == null || value.toString().isBlank()) {
+            throw new IllegalArgumentException("Missing '" + name + "'");
+        }
+        return value.toString();
+    }
+
+    private static <E extends Enum<E>> E parse(Class<E> type, String value) {
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown " + type.getSimpleName().toLowerCase(Locale.ROOT)
+                    + " '" + value + "'");
+        }
+    }
+}
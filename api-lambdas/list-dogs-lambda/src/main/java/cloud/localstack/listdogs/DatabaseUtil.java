@@ -0,0 +1,42 @@
+package cloud.localstack.listdogs;
+
+import cloud.localstack.db.auth.SecretCache;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+
+public class DatabaseUtil {
+
+    /**
+     * Get database connection using username and password retrieved from AWS Secrets Manager.
+     * The secret is cached and refreshed if the database rejects the login after a rotation.
+     */
+    public static Connection getConnectionWithUserPassword(String region, String dbSecretArn, String host, String databaseName) {
+        String jdbcUrl = String.format("jdbc:postgresql://%s/%s",
+                host, databaseName);
+        return connect(region, dbSecretArn, jdbcUrl);
+    }
+
+    /**
+     * Connection for read-only queries. The host is a reader endpoint or a comma-separated list of hosts, of
+     * which the driver picks a standby and falls back to the primary if no standby is up.
+     */
+    public static Connection getReaderConnection(String region, String dbSecretArn, String host, String databaseName) {
+        String jdbcUrl = String.format("jdbc:postgresql://%s/%s", host, databaseName);
+        if (host.contains(",")) {
+            jdbcUrl += "?targetServerType=preferSecondary&loadBalanceHosts=true";
+        }
+        return connect(region, dbSecretArn, jdbcUrl);
+    }
+
+    private static Connection connect(String region, String dbSecretArn, String jdbcUrl) {
+        try {
+            return SecretCache.getInstance().connect(region, dbSecretArn,
+                    creds -> DriverManager.getConnection(jdbcUrl, creds.username(), creds.password()));
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new RuntimeException("Database connection failed using username/password", e);
+        }
+    }
+}
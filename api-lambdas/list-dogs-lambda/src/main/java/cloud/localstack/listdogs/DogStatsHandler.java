@@ -0,0 +1,121 @@
+package cloud.localstack.listdogs;
+
+import cloud.localstack.db.apigw.ApiInvocation;
+import cloud.localstack.db.apigw.ApiRequest;
+import cloud.localstack.db.apigw.ApiResponse;
+import cloud.localstack.db.lifecycle.Priming;
+import cloud.localstack.db.lifecycle.SnapStartLifecycle;
+import cloud.localstack.db.metrics.Counter;
+import cloud.localstack.db.metrics.InvocationMetrics;
+import cloud.localstack.db.pool.ConnectionPool;
+import cloud.localstack.db.pool.PoolConfig;
+import cloud.localstack.db.pool.ReadWriteRouter;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * Dog count and average age per category. The numbers come from {@code dog_category_stats}, which triggers on
+ * {@code dogs} keep up to date, so a request never aggregates the dogs themselves; in between, the response
+ * is served from a {@link StatsCache}. Like the cache, the query does not wait for a replica to catch up with
+ * the client's writes; it runs on the reader endpoint when {@code READER_HOST} is set.
+ */
+public class DogStatsHandler implements RequestHandler<Map<String, Object>, Map<String, Object>> {
+
+    static final String FUNCTION_NAME = "dog-stats";
+
+    private static final JsonFactory jsonFactory = new JsonFactory();
+    private static final String SECRET_ARN = System.getenv("SECRET_ARN");
+    private static final String REGION = System.getenv("AWS_REGION");
+    private static final String DATABASE_NAME = System.getenv("DATABASE_NAME");
+    private static final String HOST = System.getenv("HOST");
+
+    private static final String STATS_QUERY = "SELECT category, dog_count, age_sum, age_count " +
+            "FROM dog_category_stats WHERE dog_count > 0 ORDER BY category";
+
+    private static final ConnectionPool pool = new ConnectionPool(PoolConfig.fromEnv(),
+            () -> DatabaseUtil.getConnectionWithUserPassword(REGION, SECRET_ARN, HOST, DATABASE_NAME));
+
+    private static final ReadWriteRouter router = ReadWriteRouter.fromEnv(pool,
+            readerHost -> () -> DatabaseUtil.getReaderConnection(REGION, SECRET_ARN, readerHost, DATABASE_NAME));
+
+    private static final StatsCache cache = StatsCache.fromEnv();
+
+    static {
+        router.warmUp();
+        SnapStartLifecycle.getInstance()
+                .register(router)
+                .onPrime(Priming.postgresDriver())
+                .onPrime(Priming.apiEventCodec())
+                .onRestore(cache::clear);
+    }
+
+    @Override
+    public Map<String, Object> handleRequest(Map<String, Object> event, Context context) {
+        return ApiInvocation.handle(FUNCTION_NAME, event, this::handle);
+    }
+
+    /**
+     * Shared by this handler and {@link DogStatsStreamHandler}.
+     */
+    ApiResponse handle(ApiRequest request) {
+        try {
+            String body = cache.get();
+            InvocationMetrics.increment(body != null ? Counter.CACHE_HIT : Counter.CACHE_MISS);
+            if (body == null) {
+                body = router.read(null, connection -> {
+                    try (PreparedStatement stmt = connection.prepareStatement(STATS_QUERY);
+                         ResultSet rs = stmt.executeQuery()) {
+                        return writeStats(rs);
+                    } catch (IOException e) {
+                        throw new IllegalStateException("Could not serialize stats", e);
+                    }
+                });
+                cache.put(body);
+            }
+            return ApiResponse.json(200, body)
+                    .withHeader("Cache-Control", "max-age=" + cache.ttl().toSeconds());
+        } catch (Exception e) {
+            return ApiResponse.of(500, "Error processing request: " + e.getMessage());
+        }
+    }
+
+    private static String writeStats(ResultSet rs) throws SQLException, IOException {
+        StringWriter out = new StringWriter(512);
+        try (JsonGenerator json = jsonFactory.createGenerator(out)) {
+            json.writeStartObject();
+            json.writeArrayFieldStart("categories");
+
+            long total = 0;
+            while (rs.next()) {
+                long count = rs.getLong(2);
+                long ageSum = rs.getLong(3);
+                long ageCount = rs.getLong(4);
+                total += count;
+
+                json.writeStartObject();
+                json.writeStringField("category", rs.getString(1));
+                json.writeNumberField("count", count);
+                if (ageCount > 0) {
+                    json.writeNumberField("averageAge", (double) ageSum / ageCount);
+                } else {
+                    json.writeNullField("averageAge");
+                }
+                json.writeEndObject();
+            }
+
+            json.writeEndArray();
+            json.writeNumberField("totalDogs", total);
+            json.writeEndObject();
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,285 @@
+package cloud.localstack.listdogs;
+
+import cloud.localstack.db.apigw.ApiInvocation;
+import cloud.localstack.db.apigw.ApiRequest;
+import cloud.localstack.db.apigw.ApiResponse;
+import cloud.localstack.db.lifecycle.Priming;
+import cloud.localstack.db.metrics.InvocationMetrics;
+import cloud.localstack.db.metrics.Phase;
+import cloud.localstack.db.lifecycle.SnapStartLifecycle;
+import cloud.localstack.db.pool.ConnectionPool;
+import cloud.localstack.db.pool.PoolConfig;
+import cloud.localstack.db.pool.ReadWriteRouter;
+import cloud.localstack.db.pool.SessionLsn;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Lists dogs page by page. Supports {@code category}, {@code minAge} and {@code maxAge} filters, a bounded
+ * {@code limit} and keyset pagination through the opaque {@code cursor} returned as {@code nextCursor}.
+ * With {@code ids=1,2,3} it instead returns those dogs, in the order asked for, from a single query.
+ * <p>
+ * Queries run on the reader endpoint when {@code READER_HOST} is set, or on the writer for a client whose
+ * {@link SessionLsn} token the replica has not caught up with yet.
+ */
+public class ListDogsHandler implements RequestHandler<Map<String, Object>, Map<String, Object>> {
+
+    static final String FUNCTION_NAME = "list-dogs";
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 500;
+
+    private static final JsonFactory jsonFactory = new JsonFactory();
+    private static final String SECRET_ARN = System.getenv("SECRET_ARN");
+    private static final String REGION = System.getenv("AWS_REGION");
+    private static final String DATABASE_NAME = System.getenv("DATABASE_NAME");
+    private static final String HOST = System.getenv("HOST");
+
+    private static final String MULTI_GET_QUERY = "SELECT id, name, age, category FROM dogs WHERE id = ANY(?)";
+
+    private static final ConnectionPool pool = new ConnectionPool(PoolConfig.fromEnv(),
+            () -> DatabaseUtil.getConnectionWithUserPassword(REGION, SECRET_ARN, HOST, DATABASE_NAME));
+
+    private static final ReadWriteRouter router = ReadWriteRouter.fromEnv(pool,
+            readerHost -> () -> DatabaseUtil.getReaderConnection(REGION, SECRET_ARN, readerHost, DATABASE_NAME));
+
+    static {
+        router.warmUp();
+        SnapStartLifecycle.getInstance()
+                .register(router)
+                .onPrime(Priming.postgresDriver())
+                .onPrime(Priming.apiEventCodec());
+    }
+
+    @Override
+    public Map<String, Object> handleRequest(Map<String, Object> event, Context context) {
+        return ApiInvocation.handle(FUNCTION_NAME, event, this::handle);
+    }
+
+    /**
+     * Shared by this handler and {@link ListDogsStreamHandler}.
+     */
+    ApiResponse handle(ApiRequest request) {
+        try {
+            Map<String, String> params = request.queryStringParameters();
+            String ids = stringParam(params, "ids");
+            if (ids != null) {
+                return getDogs(parseIds(ids), request.header(SessionLsn.HEADER));
+            }
+
+            String category = stringParam(params, "category");
+            Integer minAge = intParam(params, "minAge");
+            Integer maxAge = intParam(params, "maxAge");
+            Integer requestedLimit = intParam(params, "limit");
+            int limit = requestedLimit != null ? requestedLimit : DEFAULT_PAGE_SIZE;
+            if (limit < 1 || limit > MAX_PAGE_SIZE) {
+                return ApiResponse.of(400, "'limit' must be between 1 and " + MAX_PAGE_SIZE);
+            }
+            long afterId = decodeCursor(stringParam(params, "cursor"));
+
+            StringBuilder sql = new StringBuilder("SELECT id, name, age, category FROM dogs WHERE id > ?");
+            List<Object> args = new ArrayList<>();
+            args.add(afterId);
+            if (category != null) {
+                sql.append(" AND category = ?");
+                args.add(category);
+            }
+            if (minAge != null) {
+                sql.append(" AND age >= ?");
+                args.add(minAge);
+            }
+            if (maxAge != null) {
+                sql.append(" AND age <= ?");
+                args.add(maxAge);
+            }
+            // one extra row tells us whether there is a next page
+            sql.append(" ORDER BY id LIMIT ?");
+            args.add(limit + 1);
+
+            List<Dog> dogs = router.read(request.header(SessionLsn.HEADER), connection -> {
+                try (PreparedStatement stmt = connection.prepareStatement(sql.toString())) {
+                    for (int i = 0; i < args.size(); i++) {
+                        stmt.setObject(i + 1, args.get(i));
+                    }
+                    List<Dog> rows = new ArrayList<>(limit + 1);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            rows.add(new Dog(rs.getInt(1), rs.getString(2), rs.getLong(3), rs.getString(4)));
+                        }
+                    }
+                    return rows;
+                }
+            });
+
+            // serialized outside the pool's work, which is timed as SqlExecuteTime
+            long start = System.nanoTime();
+            String body = writePage(dogs, limit);
+            InvocationMetrics.record(Phase.SERIALIZATION, System.nanoTime() - start);
+            return ApiResponse.json(200, body);
+        } catch (IllegalArgumentException e) {
+            return ApiResponse.of(400, e.getMessage());
+        } catch (Exception e) {
+            return ApiResponse.of(500, "Error processing request: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Fetch the dogs with one {@code = ANY(array)} query, whose text is the same for any number of ids, and
+     * list the ids that do not exist under {@code notFound}.
+     */
+    private ApiResponse getDogs(List<Integer> ids, String sessionToken) throws SQLException {
+        Map<Integer, Dog> found = router.read(sessionToken, connection -> {
+            try (PreparedStatement stmt = connection.prepareStatement(MULTI_GET_QUERY)) {
+                stmt.setArray(1, connection.createArrayOf("integer", ids.toArray()));
+                Map<Integer, Dog> dogs = new HashMap<>(ids.size() * 2);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        Dog dog = new Dog(rs.getInt(1), rs.getString(2), rs.getLong(3), rs.getString(4));
+                        dogs.put(dog.id(), dog);
+                    }
+                }
+                return dogs;
+            }
+        });
+
+        long start = System.nanoTime();
+        StringWriter out = new StringWriter(ids.size() * 64);
+        try (JsonGenerator json = jsonFactory.createGenerator(out)) {
+            json.writeStartObject();
+            json.writeArrayFieldStart("items");
+            for (Integer id : ids) {
+                Dog dog = found.get(id);
+                if (dog != null) {
+                    json.writeStartObject();
+                    json.writeNumberField("id", dog.id());
+                    json.writeStringField("name", dog.name());
+                    json.writeNumberField("age", dog.age());
+                    json.writeStringField("category", dog.category());
+                    json.writeEndObject();
+                }
+            }
+            json.writeEndArray();
+            json.writeArrayFieldStart("notFound");
+            for (Integer id : ids) {
+                if (!found.containsKey(id)) {
+                    json.writeNumber(id);
+                }
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not serialize dogs", e);
+        }
+        InvocationMetrics.record(Phase.SERIALIZATION, System.nanoTime() - start);
+        return ApiResponse.json(200, out.toString());
+    }
+
+    private record Dog(int id, String name, long age, String category) {
+    }
+
+    /**
+     * Comma-separated ids, duplicates dropped, at most {@link #MAX_PAGE_SIZE} of them.
+     */
+    static List<Integer> parseIds(String value) {
+        Set<Integer> ids = new LinkedHashSet<>();
+        for (String part : value.split(",")) {
+            if (part.isBlank()) {
+                continue;
+            }
+            try {
+                ids.add(Integer.parseInt(part.trim()));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("'ids' must be a comma-separated list of whole numbers");
+            }
+        }
+        if (ids.isEmpty() || ids.size() > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("'ids' must list between 1 and " + MAX_PAGE_SIZE + " ids");
+        }
+        return new ArrayList<>(ids);
+    }
+
+    /**
+     * Write up to {@code limit} rows into the JSON page; a row beyond them means there is a next page.
+     */
+    private static String writePage(List<Dog> dogs, int limit) {
+        StringWriter out = new StringWriter(limit * 64);
+        try (JsonGenerator json = jsonFactory.createGenerator(out)) {
+            json.writeStartObject();
+            json.writeArrayFieldStart("items");
+
+            int written = Math.min(dogs.size(), limit);
+            for (int i = 0; i < written; i++) {
+                Dog dog = dogs.get(i);
+                json.writeStartObject();
+                json.writeNumberField("id", dog.id());
+                json.writeStringField("name", dog.name());
+                json.writeNumberField("age", dog.age());
+                json.writeStringField("category", dog.category());
+                json.writeEndObject();
+            }
+
+            json.writeEndArray();
+            if (dogs.size() > limit) {
+                json.writeStringField("nextCursor", encodeCursor(dogs.get(limit - 1).id()));
+            } else {
+                json.writeNullField("nextCursor");
+            }
+            json.writeEndObject();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not serialize dogs", e);
+        }
+        return out.toString();
+    }
+
+    static String encodeCursor(long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(("id:" + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static long decodeCursor(String cursor) {
+        if (cursor == null) {
+            return 0;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!decoded.startsWith("id:")) {
+                throw new IllegalArgumentException("Invalid 'cursor'");
+            }
+            return Long.parseLong(decoded.substring(3));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid 'cursor'", e);
+        }
+    }
+
+    private static String stringParam(Map<String, String> params, String name) {
+        String value = params.get(name);
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    private static Integer intParam(Map<String, String> params, String name) {
+        String value = stringParam(params, name);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("'" + name + "' must be a whole number");
+        }
+    }
+}
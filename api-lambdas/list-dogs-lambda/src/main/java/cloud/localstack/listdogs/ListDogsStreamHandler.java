@@ -0,0 +1,23 @@
+package cloud.localstack.listdogs;
+
+import cloud.localstack.db.apigw.ApiInvocation;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestStreamHandler;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * {@link ListDogsHandler} as a stream handler: the event is read with the streaming parser instead of being
+ * deserialized into maps by the runtime, and the response is written straight to the output stream.
+ */
+public class ListDogsStreamHandler implements RequestStreamHandler {
+
+    private final ListDogsHandler delegate = new ListDogsHandler();
+
+    @Override
+    public void handleRequest(InputStream input, OutputStream output, Context context) throws IOException {
+        ApiInvocation.handle(ListDogsHandler.FUNCTION_NAME, input, output, delegate::handle);
+    }
+}
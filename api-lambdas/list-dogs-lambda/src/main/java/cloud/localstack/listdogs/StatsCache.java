@@ -0,0 +1,51 @@
+package cloud.localstack.listdogs;
+
+import java.time.Duration;
+
+/**
+ * Holds the serialized category statistics for a short time, so dashboards polling every few seconds are served
+ * from memory and the summary table is read at most once per TTL by each container.
+ */
+public class StatsCache {
+
+    static final Duration DEFAULT_TTL = Duration.ofSeconds(5);
+
+    private final Duration ttl;
+    private volatile Entry entry;
+
+    public StatsCache(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public static StatsCache fromEnv() {
+        String ttlSeconds = System.getenv("STATS_CACHE_TTL_SECONDS");
+        return new StatsCache(ttlSeconds == null || ttlSeconds.isBlank()
+                ? DEFAULT_TTL : Duration.ofSeconds(Long.parseLong(ttlSeconds.trim())));
+    }
+
+    private record Entry(String json, long expiresAtNanos) {
+    }
+
+    /**
+     * The cached JSON, or null if there is none or it has expired.
+     */
+    public String get() {
+        Entry current = entry;
+        if (current == null || System.nanoTime() - current.expiresAtNanos() > 0) {
+            return null;
+        }
+        return current.json();
+    }
+
+    public void put(String json) {
+        entry = new Entry(json, System.nanoTime() + ttl.toNanos());
+    }
+
+    public void clear() {
+        entry = null;
+    }
+
+    public Duration ttl() {
+        return ttl;
+    }
+}
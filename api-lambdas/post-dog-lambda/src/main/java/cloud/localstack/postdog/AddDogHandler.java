@@ -1,63 +1,151 @@
 package cloud.localstack.postdog;
 
+import cloud.localstack.db.apigw.ApiInvocation;
+import cloud.localstack.db.apigw.ApiRequest;
+import cloud.localstack.db.apigw.ApiResponse;
+import cloud.localstack.db.apigw.DogPayload;
+import cloud.localstack.db.lifecycle.Priming;
+import cloud.localstack.db.lifecycle.SnapStartLifecycle;
+import cloud.localstack.db.metrics.InvocationMetrics;
+import cloud.localstack.db.metrics.Phase;
+import cloud.localstack.db.pool.ConnectionPool;
+import cloud.localstack.db.pool.PoolConfig;
+import cloud.localstack.db.pool.SessionLsn;
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
-import java.sql.Connection;
+import java.io.IOException;
 import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 
 public class AddDogHandler implements RequestHandler<Map<String, Object>, Map<String, Object>> {
 
+    static final String FUNCTION_NAME = "post-dog";
     private static final ObjectMapper objectMapper = new ObjectMapper();
     private static final String DB_USER = System.getenv("DB_USER");
     private static final String USER_PASSWORD = System.getenv("USER_PASSWORD");
 
     private static final String DATABASE_NAME = System.getenv("DATABASE_NAME");
-    private static Connection connection;
     private static final String HOST = System.getenv("HOST");
 
-    {
-        connection = DatabaseUtil.getConnectionWithUserPassword(HOST, DATABASE_NAME, DB_USER, USER_PASSWORD);
+    private static final ConnectionPool pool = new ConnectionPool(PoolConfig.fromEnv(),
+            () -> DatabaseUtil.getConnectionWithUserPassword(HOST, DATABASE_NAME, DB_USER, USER_PASSWORD));
+
+    private static final BulkDogInserter bulkInserter = BulkDogInserter.fromEnv();
+
+    static {
+        pool.warmUp();
+        SnapStartLifecycle.getInstance()
+                .register(pool)
+                .onPrime(Priming.jackson(objectMapper))
+                .onPrime(Priming.apiEventCodec())
+                .onPrime(Priming.postgresDriver());
     }
 
     @Override
     public Map<String, Object> handleRequest(Map<String, Object> event, Context context) {
+        return ApiInvocation.handle(FUNCTION_NAME, event, this::handle);
+    }
 
-
+    /**
+     * Shared by this handler and {@link AddDogStreamHandler}.
+     */
+    ApiResponse handle(ApiRequest request) {
         try {
             // Parse request body
-            String requestBody = (String) event.get("body");
-            Map<String, Object> body = objectMapper.readValue(requestBody, Map.class);
+            String requestBody = request.body();
+            if (isBulkRequest(requestBody, request.header("Content-Type"))) {
+                return addDogs(requestBody);
+            }
+            DogPayload body = DogPayload.parse(requestBody);
 
-            String name = (String) body.get("name");
-            Double age = body.get("age") != null ? Double.parseDouble(body.get("age").toString()) : null;
-            String category = (String) body.get("category");
+            String name = body.name();
+            Double age = body.age();
+            String category = body.category();
 
             if (name == null || age == null || category == null) {
-                return Map.of("statusCode", 400, "body", "All fields (name, age, category) are required.");
+                return ApiResponse.of(400, "All fields (name, age, category) are required.");
             } else {
                 // Insert new dog record
                 String query = "INSERT INTO dogs (name, age, category) VALUES (?, ?, ?)";
-                PreparedStatement stmt = connection.prepareStatement(query);
-                stmt.setString(1, name);
-                stmt.setDouble(2, age);
-                stmt.setString(3, category);
-
-                int rowsAffected = stmt.executeUpdate();
-
-                stmt.close();
+                int rowsAffected = pool.withConnection(connection -> {
+                    try (PreparedStatement stmt = connection.prepareStatement(query)) {
+                        stmt.setString(1, name);
+                        stmt.setDouble(2, age);
+                        stmt.setString(3, category);
+                        return stmt.executeUpdate();
+                    }
+                });
 
                 System.out.println("Dog added successfully! Rows affected: " + rowsAffected);
-                return Map.of("statusCode", 200, "body", "Dog added successfully!");
+                return SessionLsn.tag(ApiResponse.of(200, "Dog added successfully!"), pool);
 
             }
 
         } catch (Exception e) {
-            return Map.of("statusCode", 500, "body", "Error processing request: " + e.getMessage());
+            return ApiResponse.of(500, "Error processing request: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Insert a JSON array or NDJSON stream of dogs. Valid rows are inserted in one transaction, the response
+     * lists the generated id for every input row (null when rejected) and the validation errors.
+     */
+    private ApiResponse addDogs(String requestBody) throws Exception {
+        long start = System.nanoTime();
+        List<Map<String, Object>> rows = readRows(requestBody);
+        InvocationMetrics.record(Phase.SERIALIZATION, System.nanoTime() - start);
+        List<Map<String, Object>> errors = new ArrayList<>();
+        List<BulkDogInserter.Dog> dogs = BulkDogInserter.validate(rows, errors);
+
+        List<Long> ids = dogs.isEmpty()
+                ? List.of()
+                : pool.withConnection(connection -> bulkInserter.insert(connection, dogs));
+
+        Long[] idsByRow = new Long[rows.size()];
+        for (int i = 0; i < dogs.size(); i++) {
+            idsByRow[dogs.get(i).index()] = ids.get(i);
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("inserted", ids.size());
+        result.put("ids", idsByRow);
+        result.put("errors", errors);
+
+        System.out.println("Bulk insert finished! Rows inserted: " + ids.size() + ", rejected: " + errors.size());
+        int statusCode = dogs.isEmpty() && !rows.isEmpty() ? 400 : 200;
+        start = System.nanoTime();
+        String body = objectMapper.writeValueAsString(result);
+        InvocationMetrics.record(Phase.SERIALIZATION, System.nanoTime() - start);
+        ApiResponse response = ApiResponse.json(statusCode, body);
+        return ids.isEmpty() ? response : SessionLsn.tag(response, pool);
+    }
+
+    private static List<Map<String, Object>> readRows(String requestBody) throws IOException {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        // readValues iterates the elements of a root-level array as well as whitespace-separated documents
+        try (MappingIterator<Map<String, Object>> iterator = objectMapper
+                .readerFor(new TypeReference<Map<String, Object>>() {})
+                .readValues(requestBody)) {
+            while (iterator.hasNextValue()) {
+                rows.add(iterator.nextValue());
+            }
+        }
+        return rows;
+    }
+
+    private static boolean isBulkRequest(String requestBody, String contentType) {
+        if (requestBody != null && requestBody.stripLeading().startsWith("[")) {
+            return true;
         }
+        return contentType != null && contentType.contains("ndjson");
     }
 
 }
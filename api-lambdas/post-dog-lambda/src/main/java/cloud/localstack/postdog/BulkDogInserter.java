@@ -0,0 +1,179 @@
+package cloud.localstack.postdog;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Inserts many dogs in one transaction. Up to {@link #copyThreshold} rows go through a rewritten JDBC batch,
+ * larger payloads are streamed with {@code COPY dogs FROM STDIN} after reserving their ids from the sequence.
+ */
+public class BulkDogInserter {
+
+    static final int DEFAULT_COPY_THRESHOLD = 1000;
+    private static final int COPY_CHUNK_BYTES = 64 * 1024;
+
+    private final int copyThreshold;
+
+    public BulkDogInserter(int copyThreshold) {
+        this.copyThreshold = copyThreshold;
+    }
+
+    public static BulkDogInserter fromEnv() {
+        String threshold = System.getenv("BULK_COPY_THRESHOLD");
+        return new BulkDogInserter(threshold == null || threshold.isBlank()
+                ? DEFAULT_COPY_THRESHOLD : Integer.parseInt(threshold.trim()));
+    }
+
+    /**
+     * A validated row and its position in the request.
+     */
+    public record Dog(int index, String name, int age, String category) {
+    }
+
+    /**
+     * Validate the parsed rows, collecting one error per rejected row instead of failing the whole request.
+     */
+    public static List<Dog> validate(List<Map<String, Object>> rows, List<Map<String, Object>> errors) {
+        List<Dog> dogs = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            Map<String, Object> row = rows.get(i);
+            Object name = row.get("name");
+            Object category = row.get("category");
+            Object age = row.get("age");
+
+            if (name == null || age == null || category == null) {
+                errors.add(Map.of("index", i, "error", "All fields (name, age, category) are required."));
+                continue;
+            }
+            Integer parsedAge = parseAge(age);
+            if (parsedAge == null) {
+                errors.add(Map.of("index", i, "error", "age must be a non-negative whole number."));
+                continue;
+            }
+            dogs.add(new Dog(i, name.toString(), parsedAge, category.toString()));
+        }
+        return dogs;
+    }
+
+    /**
+     * Insert the dogs and return their generated ids in input order.
+     */
+    public List<Long> insert(Connection connection, List<Dog> dogs) throws SQLException {
+        if (dogs.isEmpty()) {
+            return List.of();
+        }
+
+        connection.setAutoCommit(false);
+        try {
+            List<Long> ids = dogs.size() > copyThreshold ? copy(connection, dogs) : batch(connection, dogs);
+            connection.commit();
+            return ids;
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private List<Long> batch(Connection connection, List<Dog> dogs) throws SQLException {
+        String query = "INSERT INTO dogs (name, age, category) VALUES (?, ?, ?)";
+        try (PreparedStatement stmt = connection.prepareStatement(query, new String[]{"id"})) {
+            for (Dog dog : dogs) {
+                stmt.setString(1, dog.name());
+                stmt.setInt(2, dog.age());
+                stmt.setString(3, dog.category());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+
+            List<Long> ids = new ArrayList<>(dogs.size());
+            try (ResultSet keys = stmt.getGeneratedKeys()) {
+                while (keys.next()) {
+                    ids.add(keys.getLong(1));
+                }
+            }
+            return ids;
+        }
+    }
+
+    private List<Long> copy(Connection connection, List<Dog> dogs) throws SQLException {
+        // COPY cannot return generated keys, so take the ids from the sequence up front
+        List<Long> ids = new ArrayList<>(dogs.size());
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "SELECT nextval('dogs_id_seq') FROM generate_series(1, ?)")) {
+            stmt.setInt(1, dogs.size());
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getLong(1));
+                }
+            }
+        }
+
+        CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+        CopyIn copyIn = copyManager.copyIn("COPY dogs (id, name, age, category) FROM STDIN WITH (FORMAT csv)");
+        try {
+            StringBuilder chunk = new StringBuilder(COPY_CHUNK_BYTES + 256);
+            for (int i = 0; i < dogs.size(); i++) {
+                Dog dog = dogs.get(i);
+                chunk.append(ids.get(i)).append(',');
+                appendCsv(chunk, dog.name()).append(',').append(dog.age()).append(',');
+                appendCsv(chunk, dog.category()).append('\n');
+                if (chunk.length() >= COPY_CHUNK_BYTES) {
+                    writeChunk(copyIn, chunk);
+                }
+            }
+            writeChunk(copyIn, chunk);
+            long copied = copyIn.endCopy();
+            System.out.println("Copied " + copied + " dogs");
+            return ids;
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+    }
+
+    private static void writeChunk(CopyIn copyIn, StringBuilder chunk) throws SQLException {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        byte[] bytes = chunk.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        chunk.setLength(0);
+    }
+
+    private static StringBuilder appendCsv(StringBuilder out, String value) {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                out.append('"');
+            }
+            out.append(c);
+        }
+        return out.append('"');
+    }
+
+    private static Integer parseAge(Object age) {
+        try {
+            double value = Double.parseDouble(age.toString());
+            if (value < 0 || value > Integer.MAX_VALUE || value != Math.rint(value)) {
+                return null;
+            }
+            return (int) value;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -8,10 +8,11 @@ public class DatabaseUtil {
 
 
     /**
-     * Get database connection using username and password using the RDS Proxy
+     * Get database connection using username and password using the RDS Proxy.
+     * Batched inserts are rewritten into multi-row INSERT statements by the driver.
      */
     public static Connection getConnectionWithUserPassword(String host, String databaseName, String username, String password) {
-        String jdbcUrl = String.format("jdbc:postgresql://%s/%s",
+        String jdbcUrl = String.format("jdbc:postgresql://%s/%s?reWriteBatchedInserts=true",
                 host, databaseName);
 
         try {
@@ -1,9 +1,6 @@
 package cloud.localstack.putdog;
 
-import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
-import software.amazon.awssdk.regions.Region;
-import software.amazon.awssdk.services.rds.RdsUtilities;
-import software.amazon.awssdk.services.rds.model.GenerateAuthenticationTokenRequest;
+import cloud.localstack.db.auth.IamAuthTokenProvider;
 
 import java.sql.Connection;
 import java.sql.DriverManager;
@@ -14,12 +11,11 @@ public class DatabaseUtil {
 
 
     /**
-     * Creates a database connection using IAM authentication token.
+     * Creates a database connection using a cached IAM authentication token.
      */
     public static Connection getConnectionWithIamAuth(String username, String host, Integer port, String region, String databaseName) {
 
-        String authToken = generateAuthToken(host, port, region, username);
-        System.out.println("Auth token: " + authToken);
+        String authToken = IamAuthTokenProvider.getInstance().getToken(host, port, username, region);
         String jdbcUrl = String.format("jdbc:postgresql://%s/%s?sslmode=require",
                 host, databaseName);
 
@@ -34,20 +30,4 @@ public class DatabaseUtil {
             throw new RuntimeException("Database connection failed using IAM authentication", e);
         }
     }
-
-    private static String generateAuthToken(String hostName, Integer port, String region, String username) {
-
-        RdsUtilities utilities = RdsUtilities.builder()
-                .credentialsProvider(DefaultCredentialsProvider.create())
-                .region(Region.of(region))
-                .build();
-
-        GenerateAuthenticationTokenRequest authTokenRequest = GenerateAuthenticationTokenRequest.builder()
-                .username(username)
-                .hostname(hostName)
-                .port(port)
-                .build();
-
-        return utilities.generateAuthenticationToken(authTokenRequest);
-    }
 }
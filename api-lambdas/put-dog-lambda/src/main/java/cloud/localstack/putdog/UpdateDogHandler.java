@@ -1,82 +1,207 @@
 package cloud.localstack.putdog;
 
+import cloud.localstack.db.apigw.ApiInvocation;
+import cloud.localstack.db.apigw.ApiRequest;
+import cloud.localstack.db.apigw.ApiResponse;
+import cloud.localstack.db.apigw.DogPayload;
+import cloud.localstack.db.auth.IamAuthTokenProvider;
+import cloud.localstack.db.lifecycle.Priming;
+import cloud.localstack.db.lifecycle.SnapStartLifecycle;
+import cloud.localstack.db.pool.ConnectionPool;
+import cloud.localstack.db.pool.PoolConfig;
+import cloud.localstack.db.pool.SessionLsn;
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
-import java.sql.Connection;
+import java.sql.Array;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 
 public class UpdateDogHandler implements RequestHandler<Map<String, Object>, Map<String, Object>> {
 
-    private static final ObjectMapper objectMapper = new ObjectMapper();
+    static final String FUNCTION_NAME = "put-dog";
     private static final String REGION = "us-east-1";
     private static final int PORT = Integer.parseInt(System.getenv("DB_PORT"));
     private static final String DB_USER = System.getenv("DB_USER");
     private static final String DATABASE_NAME = System.getenv("DATABASE_NAME");
-    private static Connection connection;
     private static final String HOST = System.getenv("HOST");
 
-    {
-        connection = DatabaseUtil.getConnectionWithIamAuth(DB_USER, HOST, PORT, REGION, DATABASE_NAME);
+    private static final ConnectionPool pool = new ConnectionPool(PoolConfig.fromEnv(),
+            () -> DatabaseUtil.getConnectionWithIamAuth(DB_USER, HOST, PORT, REGION, DATABASE_NAME));
+
+    static {
+        pool.warmUp();
+        SnapStartLifecycle.getInstance()
+                .register(pool)
+                .onPrime(Priming.apiEventCodec())
+                .onPrime(Priming.postgresDriver())
+                .onPrime(() -> IamAuthTokenProvider.getInstance().getToken(HOST, PORT, DB_USER, REGION));
     }
 
+    /**
+     * Updates the row and reports the current version in one round trip. The CTE distinguishes a missing dog
+     * (no row) from a failed If-Match precondition (row found, nothing updated). The version {@code target}
+     * reports comes from the statement's snapshot, so it is stale if a concurrent update committed while this
+     * one waited for the row lock; a failed precondition re-reads it with {@link #VERSION_QUERY}.
+     */
+    private static final String UPDATE_QUERY = "WITH target AS (SELECT version FROM dogs WHERE id = ?), " +
+            "updated AS (" +
+            "UPDATE dogs SET name = COALESCE(?, name), age = COALESCE(?::double precision, age), " +
+            "category = COALESCE(?, category), version = version + 1 " +
+            "WHERE id = ? AND (?::int[] IS NULL OR version = ANY(?::int[])) " +
+            "RETURNING version) " +
+            "SELECT target.version, updated.version FROM target LEFT JOIN updated ON true";
+
+    private static final String VERSION_QUERY = "SELECT version FROM dogs WHERE id = ?";
+
     @Override
     public Map<String, Object> handleRequest(Map<String, Object> event, Context context) {
+        return ApiInvocation.handle(FUNCTION_NAME, event, this::handle);
+    }
 
-
+    /**
+     * Shared by this handler and {@link UpdateDogStreamHandler}.
+     */
+    ApiResponse handle(ApiRequest request) {
         try {
             // Parse request body
-            String requestBody = (String) event.get("body");
-            Map<String, Object> body = objectMapper.readValue(requestBody, Map.class);
-            int id = Integer.parseInt((String) body.get("id"));
-            String name = (String) body.get("name");
-            Double age = body.get("age") != null ? Double.parseDouble(body.get("age").toString()) : null;
-            String category = (String) body.get("category");
-
-            if (name == null || age == null || category == null) {
-                return Map.of("statusCode", 400, "body", "All fields (name, age, category) are required.");
+            DogPayload body = DogPayload.parse(request.body());
+            if (body.id() == null) {
+                return ApiResponse.of(400, "Missing 'id' in request body.");
             }
-
-            String checkQuery = "SELECT COUNT(*) FROM dogs WHERE id = ?";
-            PreparedStatement checkStmt = connection.prepareStatement(checkQuery);
-            checkStmt.setInt(1, id);
-            ResultSet resultSet = checkStmt.executeQuery();
-
-            boolean recordExists = false;
-            if (resultSet.next()) {
-                recordExists = resultSet.getInt(1) > 0;
+            int id = Integer.parseInt(body.id());
+            String name = body.name();
+            Double age = body.age();
+            String category = body.category();
+
+            // PATCH updates only the supplied fields, PUT replaces all of them
+            boolean patch = "PATCH".equalsIgnoreCase(request.method());
+            if (patch && name == null && age == null && category == null) {
+                return ApiResponse.of(400, "At least one of name, age or category is required.");
+            }
+            if (!patch && (name == null || age == null || category == null)) {
+                return ApiResponse.of(400, "All fields (name, age, category) are required.");
+            }
+            IfMatch ifMatch = IfMatch.parse(request.header("If-Match"));
+
+            VersionResult result = pool.withConnection(connection -> {
+                Array expectedVersions = ifMatch == null || ifMatch.any()
+                        ? null : connection.createArrayOf("integer", ifMatch.versions().toArray());
+                try (PreparedStatement stmt = connection.prepareStatement(UPDATE_QUERY)) {
+                    stmt.setInt(1, id);
+                    stmt.setString(2, name);
+                    stmt.setObject(3, age, Types.DOUBLE);
+                    stmt.setString(4, category);
+                    stmt.setInt(5, id);
+                    stmt.setObject(6, expectedVersions, Types.ARRAY);
+                    stmt.setObject(7, expectedVersions, Types.ARRAY);
+                    try (ResultSet resultSet = stmt.executeQuery()) {
+                        if (!resultSet.next()) {
+                            return null;
+                        }
+                        int newVersion = resultSet.getInt(2);
+                        if (!resultSet.wasNull()) {
+                            return new VersionResult(resultSet.getInt(1), newVersion);
+                        }
+                    }
+                }
+                // autocommit: this statement gets a new snapshot that includes the update that beat us
+                try (PreparedStatement stmt = connection.prepareStatement(VERSION_QUERY)) {
+                    stmt.setInt(1, id);
+                    try (ResultSet resultSet = stmt.executeQuery()) {
+                        return resultSet.next() ? new VersionResult(resultSet.getInt(1), null) : null;
+                    }
+                }
+            });
+
+            if (result == null) {
+                System.out.println("No update performed. Record with ID " + id + " does not exist.");
+                // any If-Match, even *, is a precondition that a missing dog fails
+                return ifMatch != null
+                        ? ApiResponse.of(412, "Dog does not exist.")
+                        : ApiResponse.of(404, "Dog not found.");
+            }
+            if (result.newVersion() == null) {
+                System.out.println("No update performed. Record with ID " + id + " is at version " + result.currentVersion());
+                return ApiResponse.of(412, "Dog was modified by another request.")
+                        .withHeader("ETag", etag(result.currentVersion()));
             }
 
-            resultSet.close();
-            checkStmt.close();
-
-            if (recordExists) {
-                String updateQuery = "UPDATE dogs SET name = ?, age = ?, category = ? WHERE id = ?";
-                PreparedStatement updateStmt = connection.prepareStatement(updateQuery);
-                updateStmt.setString(1, name);
-                updateStmt.setDouble(2, age);
-                updateStmt.setString(3, category);
-                updateStmt.setInt(4, id);
+            System.out.println("Update successful! Dog " + id + " is now at version " + result.newVersion());
+            return SessionLsn.tag(ApiResponse.of(200, "Dog updated successfully!")
+                    .withHeader("ETag", etag(result.newVersion())), pool);
 
-                int rowsAffected = updateStmt.executeUpdate();
-                System.out.println("Update successful! Rows affected: " + rowsAffected);
+        } catch (IllegalArgumentException e) {
+            return ApiResponse.of(400, "Invalid request: " + e.getMessage());
+        } catch (Exception e) {
+            return ApiResponse.of(500, "Error processing request: " + e.getMessage());
+        }
+    }
 
-                updateStmt.close();
-                return Map.of("statusCode", 200, "body", "Dog updated successfully!");
+    /**
+     * Version of the row before the update and the new version if it was applied; if it was not, the version
+     * committed at the time of the re-read, which a retry can send as If-Match.
+     */
+    private record VersionResult(int currentVersion, Integer newVersion) {
+    }
 
-            } else {
-                System.out.println("No update performed. Record with ID " + id + " does not exist.");
-                return Map.of("statusCode", 404, "body", "Dog not found.");
+    private static String etag(int version) {
+        return "\"" + version + "\"";
+    }
 
+    /**
+     * An If-Match header: {@code *}, or the versions of its strong entity tags. If-Match uses the strong
+     * comparison, so weak tags such as {@code W/"3"}, which re-encoded responses carry, and tags that are not a
+     * version never match; a header with nothing else fails with 412.
+     */
+    private record IfMatch(boolean any, List<Integer> versions) {
+
+        /**
+         * Parse a header such as {@code "3"} or {@code "3", "4"}; null when absent.
+         *
+         * @throws IllegalArgumentException if the header is not {@code *} or a list of quoted entity tags
+         */
+        static IfMatch parse(String header) {
+            if (header == null) {
+                return null;
             }
-
-
-        } catch (Exception e) {
-            return Map.of("statusCode", 500, "body", "Error processing request: " + e.getMessage());
+            String value = header.trim();
+            if (value.equals("*")) {
+                return new IfMatch(true, List.of());
+            }
+            List<Integer> versions = new ArrayList<>();
+            int i = 0;
+            while (i < value.length()) {
+                char c = value.charAt(i);
+                if (c == ',' || c == ' ' || c == '\t') {
+                    i++;
+                    continue;
+                }
+                boolean weak = value.startsWith("W/", i);
+                int open = weak ? i + 2 : i;
+                int close = open < value.length() && value.charAt(open) == '"' ? value.indexOf('"', open + 1) : -1;
+                if (close < 0) {
+                    throw new IllegalArgumentException("If-Match must be * or a list of quoted entity tags");
+                }
+                if (!weak) {
+                    String tag = value.substring(open + 1, close);
+                    try {
+                        versions.add(Integer.parseInt(tag));
+                    } catch (NumberFormatException e) {
+                        System.out.println("If-Match tag " + tag + " is not a version and cannot match");
+                    }
+                }
+                i = close + 1;
+            }
+            if (versions.isEmpty() && value.indexOf('"') < 0) {
+                throw new IllegalArgumentException("If-Match must be * or a list of quoted entity tags");
+            }
+            return new IfMatch(false, versions);
         }
     }
 
@@ -0,0 +1,23 @@
+package cloud.localstack.putdog;
+
+import cloud.localstack.db.apigw.ApiInvocation;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestStreamHandler;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * {@link UpdateDogHandler} as a stream handler: the event is read with the streaming parser instead of being
+ * deserialized into maps by the runtime, and the response is written straight to the output stream.
+ */
+public class UpdateDogStreamHandler implements RequestStreamHandler {
+
+    private final UpdateDogHandler delegate = new UpdateDogHandler();
+
+    @Override
+    public void handleRequest(InputStream input, OutputStream output, Context context) throws IOException {
+        ApiInvocation.handle(UpdateDogHandler.FUNCTION_NAME, input, output, delegate::handle);
+    }
+}
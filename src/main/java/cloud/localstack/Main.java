@@ -1,17 +1,34 @@
 package cloud.localstack;
 
-//TIP To <b>Run</b> code, press <shortcut actionId="Run"/> or
-// click the <icon src="AllIcons.Actions.Execute"/> icon in the gutter.
+import cloud.localstack.load.LoadConfig;
+import cloud.localstack.load.LoadHarness;
+import cloud.localstack.load.LoadReport;
+
+/**
+ * Local load harness for the dog handlers, see {@link LoadHarness}. Options:
+ * {@code --concurrency=50 --warmup=10 --duration=60 --mix=get:70,post:10,put:15,delete:5 --dogs=10000
+ * --aws-port=4599 --histogram-dir=target/load}.
+ */
 public class Main {
-    public static void main(String[] args) {
-        //TIP Press <shortcut actionId="ShowIntentionActions"/> with your caret at the highlighted text
-        // to see how Aqua suggests fixing it.
-        System.out.printf("Hello and welcome!");
 
-        for (int i = 1; i <= 5; i++) {
-            //TIP Press <shortcut actionId="Debug"/> to start debugging your code. We have set one <icon src="AllIcons.Debugger.Db_set_breakpoint"/> breakpoint
-            // for you, but you can always add more by pressing <shortcut actionId="ToggleLineBreakpoint"/>.
-            System.out.println("i = " + i);
+    public static void main(String[] args) throws Exception {
+        LoadConfig config = LoadConfig.fromArgs(args);
+
+        // the handlers read these at class initialization
+        for (String name : new String[]{"AWS_REGION", "DB_PORT"}) {
+            if (System.getenv(name) == null) {
+                System.out.println("Please set " + name + " (e.g. AWS_REGION=us-east-1 DB_PORT=5432)");
+                System.exit(1);
+            }
         }
+        String poolSize = System.getenv("DB_POOL_MAX_SIZE");
+        if (poolSize == null || Integer.parseInt(poolSize.trim()) < config.concurrency()) {
+            System.out.println("DB_POOL_MAX_SIZE is below --concurrency, requests will queue for the shared pools. "
+                    + "Set DB_POOL_MAX_SIZE=" + config.concurrency() + " to model one connection per execution.");
+        }
+
+        LoadReport report = new LoadHarness(config).run();
+        report.print(System.out);
+        report.writeHistograms();
     }
-}
\ No newline at end of file
+}
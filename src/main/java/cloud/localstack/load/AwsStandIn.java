@@ -0,0 +1,188 @@
+package cloud.localstack.load;
+
+import cloud.localstack.db.pool.ConnectionPool;
+import cloud.localstack.db.pool.PoolConfig;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Minimal in-process stand-in for the two AWS APIs the handlers call: Secrets Manager {@code GetSecretValue},
+ * answered with the local database credentials, and RDS Data API {@code ExecuteStatement}, run over JDBC on
+ * the local database. The handlers reach it through {@code aws.endpointUrl}.
+ */
+class AwsStandIn {
+
+    private static final Pattern NAMED_PARAMETER = Pattern.compile("(?<!:):([A-Za-z_][A-Za-z0-9_]*)");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpServer server;
+    private final ConnectionPool dataApiPool;
+    private final String secretString;
+
+    AwsStandIn(LoadConfig config, LocalDatabase database) throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress("localhost", config.awsPort()), 0);
+        // the real Data API also holds its own connections to the cluster
+        this.dataApiPool = new ConnectionPool(PoolConfig.defaults().withMaxSize(config.concurrency()), database::connect);
+        ObjectNode secret = objectMapper.createObjectNode()
+                .put("username", config.dbUser())
+                .put("password", config.dbPassword());
+        this.secretString = secret.toString();
+
+        server.createContext("/", this::handle);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    String endpoint() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    void start() {
+        server.start();
+    }
+
+    void stop() {
+        server.stop(0);
+        dataApiPool.evictIdle();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            JsonNode request;
+            try (InputStream body = exchange.getRequestBody()) {
+                request = objectMapper.readTree(body);
+            }
+            String target = exchange.getRequestHeaders().getFirst("X-Amz-Target");
+            String path = exchange.getRequestURI().getPath();
+
+            ObjectNode response;
+            if ("secretsmanager.GetSecretValue".equals(target)) {
+                response = objectMapper.createObjectNode()
+                        .put("ARN", request.path("SecretId").asText())
+                        .put("Name", "load-harness")
+                        .put("SecretString", secretString);
+            } else if (path.equals("/Execute")) {
+                response = executeStatement(request);
+            } else {
+                send(exchange, 400, objectMapper.createObjectNode()
+                        .put("message", "Unsupported operation " + (target != null ? target : path)));
+                return;
+            }
+            send(exchange, 200, response);
+        } catch (SQLException e) {
+            send(exchange, 400, objectMapper.createObjectNode()
+                    .put("__type", "BadRequestException")
+                    .put("message", e.getMessage()));
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            send(exchange, 500, objectMapper.createObjectNode().put("message", String.valueOf(e.getMessage())));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Run an ExecuteStatement request, binding {@code :name} parameters in order of appearance.
+     */
+    private ObjectNode executeStatement(JsonNode request) throws SQLException {
+        List<String> names = new ArrayList<>();
+        Matcher matcher = NAMED_PARAMETER.matcher(request.path("sql").asText());
+        StringBuilder sql = new StringBuilder();
+        while (matcher.find()) {
+            names.add(matcher.group(1));
+            matcher.appendReplacement(sql, "?");
+        }
+        matcher.appendTail(sql);
+
+        return dataApiPool.withConnection(connection -> {
+            try (PreparedStatement stmt = connection.prepareStatement(sql.toString())) {
+                for (int i = 0; i < names.size(); i++) {
+                    bind(stmt, i + 1, parameterValue(request.path("parameters"), names.get(i)));
+                }
+                ObjectNode response = objectMapper.createObjectNode();
+                if (!stmt.execute()) {
+                    response.put("numberOfRecordsUpdated", stmt.getUpdateCount());
+                    return response;
+                }
+                ArrayNode records = response.putArray("records");
+                try (ResultSet rs = stmt.getResultSet()) {
+                    ResultSetMetaData meta = rs.getMetaData();
+                    while (rs.next()) {
+                        ArrayNode record = records.addArray();
+                        for (int column = 1; column <= meta.getColumnCount(); column++) {
+                            record.add(field(rs, column, meta.getColumnType(column)));
+                        }
+                    }
+                }
+                response.put("numberOfRecordsUpdated", 0);
+                return response;
+            }
+        });
+    }
+
+    private static JsonNode parameterValue(JsonNode parameters, String name) throws SQLException {
+        for (JsonNode parameter : parameters) {
+            if (name.equals(parameter.path("name").asText())) {
+                return parameter.path("value");
+            }
+        }
+        throw new SQLException("No value for parameter :" + name);
+    }
+
+    private static void bind(PreparedStatement stmt, int index, JsonNode value) throws SQLException {
+        if (value.has("longValue")) {
+            stmt.setLong(index, value.get("longValue").asLong());
+        } else if (value.has("doubleValue")) {
+            stmt.setDouble(index, value.get("doubleValue").asDouble());
+        } else if (value.has("booleanValue")) {
+            stmt.setBoolean(index, value.get("booleanValue").asBoolean());
+        } else if (value.has("stringValue")) {
+            // untyped, so the server casts it to the column type like the Data API does
+            stmt.setObject(index, value.get("stringValue").asText(), Types.OTHER);
+        } else {
+            stmt.setNull(index, Types.NULL);
+        }
+    }
+
+    private ObjectNode field(ResultSet rs, int column, int type) throws SQLException {
+        ObjectNode field = objectMapper.createObjectNode();
+        Object value = rs.getObject(column);
+        if (value == null) {
+            return field.put("isNull", true);
+        }
+        switch (type) {
+            case Types.SMALLINT, Types.INTEGER, Types.BIGINT -> field.put("longValue", rs.getLong(column));
+            case Types.REAL, Types.DOUBLE, Types.FLOAT -> field.put("doubleValue", rs.getDouble(column));
+            case Types.BOOLEAN, Types.BIT -> field.put("booleanValue", rs.getBoolean(column));
+            default -> field.put("stringValue", rs.getString(column));
+        }
+        return field;
+    }
+
+    private void send(HttpExchange exchange, int status, ObjectNode body) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/x-amz-json-1.1");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package cloud.localstack.load;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Samples {@code pg_stat_activity} while the load runs and keeps the peak number of client backends on the
+ * database, in total and actively running a query.
+ */
+class ConnectionMonitor implements AutoCloseable {
+
+    private static final long SAMPLE_INTERVAL_MILLIS = 100;
+    private static final String COUNT_BACKENDS = "SELECT count(*), count(*) FILTER (WHERE state = 'active') " +
+            "FROM pg_stat_activity " +
+            "WHERE datname = current_database() AND backend_type = 'client backend' AND pid <> pg_backend_pid()";
+
+    private final Connection connection;
+    private final PreparedStatement countBackends;
+    private final AtomicInteger peakBackends = new AtomicInteger();
+    private final AtomicInteger peakActive = new AtomicInteger();
+    private final ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "connection-monitor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    ConnectionMonitor(LocalDatabase database) throws SQLException {
+        this.connection = database.connect();
+        this.countBackends = connection.prepareStatement(COUNT_BACKENDS);
+    }
+
+    void start() {
+        sampler.scheduleAtFixedRate(this::sample, 0, SAMPLE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Forget the peaks seen so far, e.g. those of the warm-up.
+     */
+    void reset() {
+        peakBackends.set(0);
+        peakActive.set(0);
+    }
+
+    int peakBackends() {
+        return peakBackends.get();
+    }
+
+    int peakActive() {
+        return peakActive.get();
+    }
+
+    private void sample() {
+        try (ResultSet rs = countBackends.executeQuery()) {
+            rs.next();
+            peakBackends.accumulateAndGet(rs.getInt(1), Math::max);
+            peakActive.accumulateAndGet(rs.getInt(2), Math::max);
+        } catch (SQLException e) {
+            System.out.println("Could not sample pg_stat_activity: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        sampler.shutdownNow();
+        try {
+            sampler.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        connection.close();
+    }
+}
@@ -0,0 +1,46 @@
+package cloud.localstack.load;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram and status code counts of one operation. Latencies are recorded in microseconds, from
+ * one microsecond up to one minute with three significant digits.
+ */
+class LatencyStats {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+    private final Map<Integer, LongAdder> statusCodes = new ConcurrentHashMap<>();
+
+    void record(long elapsedNanos, int statusCode) {
+        long micros = Math.min(Math.max(TimeUnit.NANOSECONDS.toMicros(elapsedNanos), 1), HIGHEST_TRACKABLE_MICROS);
+        recorder.recordValue(micros);
+        statusCodes.computeIfAbsent(statusCode, code -> new LongAdder()).increment();
+    }
+
+    /**
+     * Drop everything recorded so far, e.g. during the warm-up.
+     */
+    void reset() {
+        recorder.reset();
+        statusCodes.clear();
+    }
+
+    /**
+     * Everything recorded since the last reset. Only call once the run is over.
+     */
+    Histogram histogram() {
+        return recorder.getIntervalHistogram();
+    }
+
+    Map<Integer, LongAdder> statusCodes() {
+        return statusCodes;
+    }
+}
@@ -0,0 +1,94 @@
+package cloud.localstack.load;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Settings of a load run, read from {@code --name=value} arguments. The local database is configured with
+ * {@code LOAD_JDBC_URL}, {@code LOAD_DB_USER} and {@code LOAD_DB_PASSWORD}. {@code LOAD_READER_JDBC_URL}
+ * optionally names a streaming replica of it, which then serves the connections opened for {@code READER_HOST}.
+ *
+ * @param concurrency number of virtual threads issuing requests back to back, i.e. concurrent executions
+ * @param mix         relative weight of each operation
+ * @param dogs        number of dogs seeded before the run; GET, PUT and DELETE pick ids from this range
+ * @param awsPort     port of the in-process Secrets Manager / Data API stand-in
+ */
+public record LoadConfig(Duration warmup,
+                         Duration duration,
+                         int concurrency,
+                         Map<Operation, Integer> mix,
+                         int dogs,
+                         String jdbcUrl,
+                         String dbUser,
+                         String dbPassword,
+                         String readerJdbcUrl,
+                         int awsPort,
+                         String histogramDir) {
+
+    public static LoadConfig fromArgs(String[] args) {
+        Duration warmup = Duration.ofSeconds(10);
+        Duration duration = Duration.ofSeconds(60);
+        int concurrency = 50;
+        Map<Operation, Integer> mix = parseMix("get:70,post:10,put:15,delete:5");
+        int dogs = 10_000;
+        int awsPort = 4599;
+        String histogramDir = "target/load";
+
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            String name = arg.substring(2, separator);
+            String value = arg.substring(separator + 1);
+            switch (name) {
+                case "warmup" -> warmup = Duration.ofSeconds(Long.parseLong(value));
+                case "duration" -> duration = Duration.ofSeconds(Long.parseLong(value));
+                case "concurrency" -> concurrency = Integer.parseInt(value);
+                case "mix" -> mix = parseMix(value);
+                case "dogs" -> dogs = Integer.parseInt(value);
+                case "aws-port" -> awsPort = Integer.parseInt(value);
+                case "histogram-dir" -> histogramDir = value;
+                default -> throw new IllegalArgumentException("Unknown option --" + name);
+            }
+        }
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("--concurrency must be at least 1");
+        }
+
+        return new LoadConfig(warmup, duration, concurrency, mix, dogs,
+                envOrDefault("LOAD_JDBC_URL", "jdbc:postgresql://localhost:5432/postgres"),
+                envOrDefault("LOAD_DB_USER", "postgres"),
+                envOrDefault("LOAD_DB_PASSWORD", "postgres"),
+                envOrDefault("LOAD_READER_JDBC_URL", null),
+                awsPort, histogramDir);
+    }
+
+    /**
+     * Parse a mix such as {@code get:70,post:10,put:15,delete:5}; operations left out are not sent.
+     */
+    static Map<Operation, Integer> parseMix(String value) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String part : value.split(",")) {
+            String[] entry = part.trim().split(":");
+            if (entry.length != 2) {
+                throw new IllegalArgumentException("Invalid --mix entry: " + part);
+            }
+            int weight = Integer.parseInt(entry[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Invalid --mix weight: " + part);
+            }
+            mix.put(Operation.valueOf(entry[0].trim().toUpperCase()), weight);
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("--mix must give at least one operation a positive weight");
+        }
+        return mix;
+    }
+
+    private static String envOrDefault(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isBlank() ? defaultValue : value;
+    }
+}
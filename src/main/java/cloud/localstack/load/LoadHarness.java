@@ -0,0 +1,141 @@
+package cloud.localstack.load;
+
+import cloud.localstack.deletedog.DeleteDogHandler;
+import cloud.localstack.getdog.GetDogHandler;
+import cloud.localstack.listdogs.ListDogsHandler;
+import cloud.localstack.postdog.AddDogHandler;
+import cloud.localstack.putdog.UpdateDogHandler;
+import cloud.localstack.db.pool.SessionLsn;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Runs the dog handlers in-process on virtual threads against a local PostgreSQL. Each virtual thread stands
+ * for one concurrent Lambda execution and sends requests back to back, so throughput is what that concurrency
+ * can sustain. The handlers' JDBC connections are redirected by {@link LocalRoutingDriver} and their AWS calls
+ * are answered by {@link AwsStandIn}.
+ * <p>
+ * Each virtual thread also behaves like one client session: its {@code LIST} reads send back the
+ * {@code X-Session-LSN} of its last write, as a client wanting read-your-writes would.
+ */
+public class LoadHarness {
+
+    private final LoadConfig config;
+    private final LocalDatabase database;
+
+    public LoadHarness(LoadConfig config) {
+        this.config = config;
+        this.database = new LocalDatabase(config);
+    }
+
+    public LoadReport run() throws Exception {
+        database.prepareSchema(config.dogs());
+        long[] idRange = database.idRange();
+
+        String readerHost = System.getenv("READER_HOST");
+        if (config.readerJdbcUrl() != null && (readerHost == null || readerHost.isBlank())) {
+            throw new IllegalStateException("LOAD_READER_JDBC_URL needs READER_HOST to be set, e.g. READER_HOST=reader");
+        }
+        LocalRoutingDriver routingDriver = LocalRoutingDriver.install(config.jdbcUrl(),
+                readerHost == null ? null : readerHost.trim(), config.readerJdbcUrl(),
+                config.dbUser(), config.dbPassword());
+        AwsStandIn aws = new AwsStandIn(config, database);
+        aws.start();
+        System.setProperty("aws.endpointUrl", aws.endpoint());
+        setIfAbsent("aws.accessKeyId", "test");
+        setIfAbsent("aws.secretAccessKey", "test");
+        setIfAbsent("aws.region", System.getenv().getOrDefault("AWS_REGION", "us-east-1"));
+        // one EMF line per request would drown the report
+        setIfAbsent("metrics.enabled", "false");
+
+        Map<Operation, LatencyStats> stats = new EnumMap<>(Operation.class);
+        Map<Operation, RequestHandler<Map<String, Object>, Map<String, Object>>> handlers = new EnumMap<>(Operation.class);
+        for (Map.Entry<Operation, Integer> entry : config.mix().entrySet()) {
+            if (entry.getValue() > 0) {
+                handlers.put(entry.getKey(), createHandler(entry.getKey()));
+                stats.put(entry.getKey(), new LatencyStats());
+            }
+        }
+
+        TrafficMix mix = new TrafficMix(config.mix());
+        try (ConnectionMonitor monitor = new ConnectionMonitor(database)) {
+            monitor.start();
+
+            long start = System.nanoTime();
+            long measureStart = start + config.warmup().toNanos();
+            long end = measureStart + config.duration().toNanos();
+
+            List<Thread> workers = new ArrayList<>(config.concurrency());
+            for (int i = 0; i < config.concurrency(); i++) {
+                workers.add(Thread.ofVirtual().name("load-" + i).start(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    String sessionLsn = null;
+                    while (true) {
+                        Operation operation = mix.next();
+                        Map<String, Object> event = operation.event(random.nextLong(idRange[0], idRange[1] + 1), sessionLsn);
+
+                        long sent = System.nanoTime();
+                        if (sent >= end) {
+                            return;
+                        }
+                        Map<String, Object> response = handlers.get(operation).handleRequest(event, null);
+                        stats.get(operation).record(System.nanoTime() - sent, (Integer) response.get("statusCode"));
+                        if (response.get("headers") instanceof Map<?, ?> headers
+                                && headers.get(SessionLsn.HEADER) instanceof String lsn) {
+                            sessionLsn = lsn;
+                        }
+                    }
+                }));
+            }
+
+            sleepUntil(measureStart);
+            stats.values().forEach(LatencyStats::reset);
+            monitor.reset();
+            System.out.println("Warm-up finished, measuring for " + config.duration().toSeconds() + "s");
+
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            long measured = System.nanoTime() - measureStart;
+
+            return new LoadReport(config, measured, stats, routingDriver.peakOpenConnections(),
+                    routingDriver.totalOpened(), monitor.peakBackends(), monitor.peakActive(),
+                    database.maxConnections());
+        } finally {
+            aws.stop();
+        }
+    }
+
+    /**
+     * Handlers are created only once the routing driver and the AWS stand-in are in place, because their static
+     * initializers already open connections.
+     */
+    private static RequestHandler<Map<String, Object>, Map<String, Object>> createHandler(Operation operation) {
+        return switch (operation) {
+            case GET -> new GetDogHandler();
+            case POST -> new AddDogHandler();
+            case PUT -> new UpdateDogHandler();
+            case DELETE -> new DeleteDogHandler();
+            case LIST -> new ListDogsHandler();
+        };
+    }
+
+    private static void setIfAbsent(String property, String value) {
+        if (System.getProperty(property) == null) {
+            System.setProperty(property, value);
+        }
+    }
+
+    private static void sleepUntil(long nanoTime) throws InterruptedException {
+        long remaining;
+        while ((remaining = nanoTime - System.nanoTime()) > 0) {
+            Thread.sleep(remaining / 1_000_000, (int) (remaining % 1_000_000));
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package cloud.localstack.load;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Results of a load run: throughput and latency percentiles per operation, and the connection peaks needed to
+ * size RDS Proxy and Lambda concurrency.
+ */
+public class LoadReport {
+
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    private final LoadConfig config;
+    private final long measuredNanos;
+    private final Map<Operation, Histogram> histograms = new TreeMap<>();
+    private final Map<Operation, Map<Integer, LongAdder>> statusCodes = new TreeMap<>();
+    private final int peakHandlerConnections;
+    private final int connectionsOpened;
+    private final int peakBackends;
+    private final int peakActiveBackends;
+    private final int maxConnections;
+
+    LoadReport(LoadConfig config, long measuredNanos, Map<Operation, LatencyStats> stats, int peakHandlerConnections,
+               int connectionsOpened, int peakBackends, int peakActiveBackends, int maxConnections) {
+        this.config = config;
+        this.measuredNanos = measuredNanos;
+        stats.forEach((operation, operationStats) -> {
+            histograms.put(operation, operationStats.histogram());
+            statusCodes.put(operation, operationStats.statusCodes());
+        });
+        this.peakHandlerConnections = peakHandlerConnections;
+        this.connectionsOpened = connectionsOpened;
+        this.peakBackends = peakBackends;
+        this.peakActiveBackends = peakActiveBackends;
+        this.maxConnections = maxConnections;
+    }
+
+    public void print(PrintStream out) {
+        double seconds = measuredNanos / (double) TimeUnit.SECONDS.toNanos(1);
+        out.printf("%nConcurrency %d, measured %.1fs%n%n", config.concurrency(), seconds);
+        out.printf("%-8s %10s %10s %9s %9s %9s %9s %9s  %s%n",
+                "op", "requests", "req/s", "p50 ms", "p95 ms", "p99 ms", "p99.9 ms", "max ms", "status codes");
+
+        Histogram total = new Histogram(histograms.values().stream().findFirst()
+                .map(Histogram::getHighestTrackableValue).orElse(TimeUnit.MINUTES.toMicros(1)), 3);
+        for (Map.Entry<Operation, Histogram> entry : histograms.entrySet()) {
+            total.add(entry.getValue());
+            printRow(out, entry.getKey().name(), entry.getValue(), seconds, new TreeMap<>(statusCodes.get(entry.getKey())));
+        }
+        printRow(out, "all", total, seconds, Map.of());
+
+        out.printf("%nPeak connections held by handlers: %d (%d opened in total)%n", peakHandlerConnections, connectionsOpened);
+        out.printf("Peak database backends: %d, %d active (%.1f%% of max_connections = %d)%n",
+                peakBackends, peakActiveBackends, 100.0 * peakBackends / maxConnections, maxConnections);
+    }
+
+    private static void printRow(PrintStream out, String name, Histogram histogram, double seconds,
+                                 Map<Integer, LongAdder> statusCodes) {
+        StringBuilder codes = new StringBuilder();
+        statusCodes.forEach((code, count) -> codes.append(code).append('=').append(count.sum()).append(' '));
+        out.printf("%-8s %10d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f  %s%n",
+                name,
+                histogram.getTotalCount(),
+                histogram.getTotalCount() / seconds,
+                histogram.getValueAtPercentile(50) / MICROS_PER_MILLI,
+                histogram.getValueAtPercentile(95) / MICROS_PER_MILLI,
+                histogram.getValueAtPercentile(99) / MICROS_PER_MILLI,
+                histogram.getValueAtPercentile(99.9) / MICROS_PER_MILLI,
+                histogram.getMaxValue() / MICROS_PER_MILLI,
+                codes.toString().trim());
+    }
+
+    /**
+     * Write the full latency distribution of each operation in HdrHistogram's {@code .hgrm} format, in
+     * milliseconds, e.g. for the HdrHistogram plotter.
+     */
+    public void writeHistograms() throws IOException {
+        Path dir = Path.of(config.histogramDir());
+        Files.createDirectories(dir);
+        for (Map.Entry<Operation, Histogram> entry : histograms.entrySet()) {
+            Path file = dir.resolve(entry.getKey().name().toLowerCase() + ".hgrm");
+            try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+                entry.getValue().outputPercentileDistribution(out, MICROS_PER_MILLI);
+            }
+        }
+        System.out.println("Latency distributions written to " + dir.toAbsolutePath());
+    }
+}
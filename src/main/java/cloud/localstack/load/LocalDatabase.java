@@ -0,0 +1,83 @@
+package cloud.localstack.load;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+
+/**
+ * Direct connections to the local database for the harness itself. They bypass {@link LocalRoutingDriver}, so
+ * they are not counted as handler connections.
+ */
+class LocalDatabase {
+
+    private final org.postgresql.Driver driver = new org.postgresql.Driver();
+    private final String jdbcUrl;
+    private final Properties credentials = new Properties();
+
+    LocalDatabase(LoadConfig config) {
+        this.jdbcUrl = config.jdbcUrl();
+        credentials.setProperty("user", config.dbUser());
+        credentials.setProperty("password", config.dbPassword());
+    }
+
+    Connection connect() throws SQLException {
+        return driver.connect(jdbcUrl, credentials);
+    }
+
+    /**
+     * Connect to another database on the same server.
+     */
+    Connection connect(String database) throws SQLException {
+        // jdbc:postgresql://host:port/database?options
+        int slash = jdbcUrl.indexOf('/', jdbcUrl.indexOf("//") + 2);
+        int query = jdbcUrl.indexOf('?', slash);
+        String url = jdbcUrl.substring(0, slash + 1) + database + (query < 0 ? "" : jdbcUrl.substring(query));
+        return driver.connect(url, credentials);
+    }
+
+    /**
+     * Create the dogs table as the db-setup function does and seed it up to the requested number of dogs.
+     */
+    void prepareSchema(int dogs) throws SQLException {
+        try (Connection connection = connect(); Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS dogs (" +
+                    "id SERIAL PRIMARY KEY, " +
+                    "name VARCHAR(100), " +
+                    "age INT, " +
+                    "category VARCHAR(50))");
+            stmt.executeUpdate("ALTER TABLE dogs ADD COLUMN IF NOT EXISTS version INT NOT NULL DEFAULT 0");
+
+            long existing;
+            try (ResultSet rs = stmt.executeQuery("SELECT count(*) FROM dogs")) {
+                rs.next();
+                existing = rs.getLong(1);
+            }
+            if (existing < dogs) {
+                stmt.executeUpdate("INSERT INTO dogs (name, age, category) " +
+                        "SELECT 'Dog ' || g, g % 15, (ARRAY['Boofer', 'Yipper', 'Woofer'])[g % 3 + 1] " +
+                        "FROM generate_series(1, " + (dogs - existing) + ") AS g");
+            }
+        }
+    }
+
+    /**
+     * Smallest and largest dog id, the range requests pick their ids from.
+     */
+    long[] idRange() throws SQLException {
+        try (Connection connection = connect(); Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT min(id), max(id) FROM dogs")) {
+            rs.next();
+            return new long[]{rs.getLong(1), rs.getLong(2)};
+        }
+    }
+
+    int maxConnections() throws SQLException {
+        try (Connection connection = connect(); Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SHOW max_connections")) {
+            rs.next();
+            return Integer.parseInt(rs.getString(1));
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package cloud.localstack.load;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * JDBC driver that sends every {@code jdbc:postgresql:} connection the handlers open, whatever proxy host,
+ * SSL mode or IAM token they use, to the local database instead. It also counts the connections that are open
+ * at the same time, which is what the handlers would hold against RDS Proxy. With a reader URL, connections
+ * to {@code READER_HOST} go to that replica instead, with the same credentials.
+ */
+class LocalRoutingDriver implements Driver {
+
+    private final Driver postgres;
+    private final String jdbcUrl;
+    private final String readerPrefix;
+    private final String readerJdbcUrl;
+    private final Properties credentials = new Properties();
+    private final AtomicInteger open = new AtomicInteger();
+    private final AtomicInteger peak = new AtomicInteger();
+    private final AtomicInteger opened = new AtomicInteger();
+
+    private LocalRoutingDriver(Driver postgres, String jdbcUrl, String readerHost, String readerJdbcUrl,
+                               String user, String password) {
+        this.postgres = postgres;
+        this.jdbcUrl = jdbcUrl;
+        this.readerPrefix = readerJdbcUrl == null ? null : "jdbc:postgresql://" + readerHost + "/";
+        this.readerJdbcUrl = readerJdbcUrl;
+        credentials.setProperty("user", user);
+        credentials.setProperty("password", password);
+    }
+
+    /**
+     * Register the routing driver in front of the PostgreSQL driver, which DriverManager would otherwise pick.
+     */
+    static LocalRoutingDriver install(String jdbcUrl, String user, String password) throws SQLException {
+        return install(jdbcUrl, null, null, user, password);
+    }
+
+    /**
+     * @param readerHost    the {@code READER_HOST} the handlers were given
+     * @param readerJdbcUrl where connections to the reader host go, or null to send them to the database too
+     */
+    static LocalRoutingDriver install(String jdbcUrl, String readerHost, String readerJdbcUrl, String user,
+                                      String password) throws SQLException {
+        Driver postgres = new org.postgresql.Driver();
+        List<Driver> registered = new ArrayList<>(Collections.list(DriverManager.getDrivers()));
+        for (Driver driver : registered) {
+            if (driver instanceof org.postgresql.Driver) {
+                DriverManager.deregisterDriver(driver);
+            }
+        }
+        LocalRoutingDriver routing = new LocalRoutingDriver(postgres, jdbcUrl, readerHost, readerJdbcUrl, user, password);
+        DriverManager.registerDriver(routing);
+        return routing;
+    }
+
+    int openConnections() {
+        return open.get();
+    }
+
+    int peakOpenConnections() {
+        return peak.get();
+    }
+
+    int totalOpened() {
+        return opened.get();
+    }
+
+    @Override
+    public Connection connect(String url, Properties info) throws SQLException {
+        if (!acceptsURL(url)) {
+            return null;
+        }
+        boolean toReader = readerPrefix != null && url.startsWith(readerPrefix);
+        Connection connection = postgres.connect(toReader ? readerJdbcUrl : jdbcUrl, credentials);
+        opened.incrementAndGet();
+        peak.accumulateAndGet(open.incrementAndGet(), Math::max);
+        return track(connection);
+    }
+
+    private Connection track(Connection connection) {
+        AtomicBoolean closed = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("close") && closed.compareAndSet(false, true)) {
+                        open.decrementAndGet();
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    @Override
+    public boolean acceptsURL(String url) {
+        return url != null && url.startsWith("jdbc:postgresql:");
+    }
+
+    @Override
+    public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) throws SQLException {
+        return postgres.getPropertyInfo(jdbcUrl, info);
+    }
+
+    @Override
+    public int getMajorVersion() {
+        return postgres.getMajorVersion();
+    }
+
+    @Override
+    public int getMinorVersion() {
+        return postgres.getMinorVersion();
+    }
+
+    @Override
+    public boolean jdbcCompliant() {
+        return postgres.jdbcCompliant();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return postgres.getParentLogger();
+    }
+}
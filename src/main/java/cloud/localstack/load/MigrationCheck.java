@@ -0,0 +1,132 @@
+package cloud.localstack.load;
+
+import cloud.localstack.initdb.Migration;
+import cloud.localstack.initdb.MigrationRunner;
+import cloud.localstack.initdb.Migrations;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Starts several setup runs at once against a scratch database on the local server and checks that they
+ * serialize on the migration lock: all of them succeed, exactly one applies the migrations, and the
+ * concurrently built indexes are valid. The index builds are where a waiting run used to deadlock the lock
+ * holder.
+ * <p>
+ * The migrations that grant to the RDS roles are left out, because those roles only exist on RDS. Options:
+ * {@code --runs=4} and {@code --dogs=200000}, rows seeded so the index builds take a while. The scratch database
+ * is dropped afterwards.
+ */
+public class MigrationCheck {
+
+    private static final String DATABASE = "migration_check";
+    private static final Set<Integer> ROLE_MIGRATIONS = Set.of(4, 5, 8);
+
+    public static void main(String[] args) throws Exception {
+        int runs = 4;
+        int dogs = 200_000;
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            String value = arg.substring(separator + 1);
+            switch (arg.substring(2, separator)) {
+                case "runs" -> runs = Integer.parseInt(value);
+                case "dogs" -> dogs = Integer.parseInt(value);
+                default -> throw new IllegalArgumentException("Unknown option " + arg.substring(0, separator));
+            }
+        }
+        if (runs < 2) {
+            throw new IllegalArgumentException("--runs must be at least 2");
+        }
+
+        LocalDatabase database = new LocalDatabase(LoadConfig.fromArgs(new String[0]));
+        boolean passed = new MigrationCheck().run(database, runs, dogs);
+        System.exit(passed ? 0 : 1);
+    }
+
+    boolean run(LocalDatabase database, int runs, int dogs) throws Exception {
+        List<Migration> migrations = Migrations.ALL.stream()
+                .filter(migration -> !ROLE_MIGRATIONS.contains(migration.version()))
+                .toList();
+
+        try (Connection admin = database.connect(); Statement stmt = admin.createStatement()) {
+            stmt.executeUpdate("DROP DATABASE IF EXISTS " + DATABASE);
+            stmt.executeUpdate("CREATE DATABASE " + DATABASE);
+        }
+        try {
+            seed(database, dogs);
+
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<MigrationRunner.Result>> results = new ArrayList<>();
+            try (ExecutorService executor = Executors.newFixedThreadPool(runs)) {
+                for (int i = 0; i < runs; i++) {
+                    results.add(executor.submit(() -> {
+                        try (Connection connection = database.connect(DATABASE)) {
+                            start.await();
+                            return new MigrationRunner(migrations).migrate(connection);
+                        }
+                    }));
+                }
+                start.countDown();
+            }
+
+            int failed = 0;
+            int applying = 0;
+            for (Future<MigrationRunner.Result> result : results) {
+                try {
+                    MigrationRunner.Result outcome = result.get();
+                    System.out.println("Run applied " + outcome.applied() + " migrations, version " + outcome.version());
+                    if (outcome.applied() > 0) {
+                        applying++;
+                    }
+                } catch (ExecutionException e) {
+                    failed++;
+                    System.out.println("Run failed: " + e.getCause());
+                }
+            }
+            int invalidIndexes = invalidIndexes(database);
+
+            boolean passed = failed == 0 && applying == 1 && invalidIndexes == 0;
+            System.out.println((passed ? "PASSED" : "FAILED") + ": " + runs + " runs, " + failed + " failed, "
+                    + applying + " applied migrations, " + invalidIndexes + " invalid indexes");
+            return passed;
+        } finally {
+            try (Connection admin = database.connect(); Statement stmt = admin.createStatement()) {
+                stmt.executeUpdate("DROP DATABASE IF EXISTS " + DATABASE);
+            }
+        }
+    }
+
+    private static void seed(LocalDatabase database, int dogs) throws SQLException {
+        try (Connection connection = database.connect(DATABASE); Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE dogs (" +
+                    "id SERIAL PRIMARY KEY, " +
+                    "name VARCHAR(100), " +
+                    "age INT, " +
+                    "category VARCHAR(50))");
+            stmt.executeUpdate("INSERT INTO dogs (name, age, category) " +
+                    "SELECT 'Dog ' || g, g % 15, (ARRAY['Boofer', 'Yipper', 'Woofer'])[g % 3 + 1] " +
+                    "FROM generate_series(1, " + dogs + ") AS g");
+        }
+    }
+
+    private static int invalidIndexes(LocalDatabase database) throws SQLException {
+        try (Connection connection = database.connect(DATABASE); Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT count(*) FROM pg_index WHERE NOT indisvalid")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}
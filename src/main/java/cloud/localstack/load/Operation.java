@@ -0,0 +1,55 @@
+package cloud.localstack.load;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The requests from {@code api-tests/*.http}, as HTTP API (v2) events for the matching handler.
+ */
+public enum Operation {
+
+    GET("GET", "/dogs/{id}"),
+    POST("POST", "/dogs"),
+    PUT("PUT", "/dogs"),
+    DELETE("DELETE", "/dogs/{id}"),
+    LIST("GET", "/dogs");
+
+    private final String method;
+    private final String route;
+
+    Operation(String method, String route) {
+        this.method = method;
+        this.route = route;
+    }
+
+    /**
+     * Build the event the runtime would hand to the handler for a request on the given dog.
+     */
+    public Map<String, Object> event(long dogId) {
+        return event(dogId, null);
+    }
+
+    /**
+     * @param sessionLsn the {@code X-Session-LSN} of the client's last write, sent along with reads, or null
+     */
+    public Map<String, Object> event(long dogId, String sessionLsn) {
+        Map<String, Object> event = new HashMap<>();
+        event.put("version", "2.0");
+        event.put("routeKey", method + " " + route);
+        Map<String, String> headers = new HashMap<>();
+        headers.put("content-type", "application/json");
+        headers.put("accept", "application/json");
+        if (sessionLsn != null && this == LIST) {
+            headers.put("x-session-lsn", sessionLsn);
+        }
+        event.put("headers", headers);
+        event.put("requestContext", Map.of("http", Map.of("method", method, "path", "/dev" + route)));
+        switch (this) {
+            case GET, DELETE -> event.put("pathParameters", Map.of("id", Long.toString(dogId)));
+            case POST -> event.put("body", "{\"name\":\"Buddy\",\"age\":\"4\",\"category\":\"Boofer\"}");
+            case PUT -> event.put("body", "{\"id\":\"" + dogId + "\",\"name\":\"Buddy\",\"age\":\"4\",\"category\":\"Boofer\"}");
+            case LIST -> event.put("queryStringParameters", Map.of("ids", Long.toString(dogId)));
+        }
+        return event;
+    }
+}
@@ -0,0 +1,126 @@
+package cloud.localstack.load;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Local stand-in for the Lambda Runtime API that a custom runtime polls, enough to drive {@code LambdaRuntime}
+ * in a separate process, native or on a JVM: {@code invocation/next} hands out queued events, and the
+ * {@code response} and {@code error} calls complete them. An {@code init/error} fails everything queued.
+ */
+class RuntimeApiStandIn {
+
+    private static final String PREFIX = "/2018-06-01/runtime/";
+
+    private final HttpServer server;
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final Map<String, CompletableFuture<Result>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * What the runtime posted for an invocation; {@code error} is set for function and init errors.
+     */
+    record Result(boolean error, byte[] body) {
+
+        String bodyText() {
+            return new String(body, StandardCharsets.UTF_8);
+        }
+    }
+
+    private record Pending(String requestId, byte[] event) {
+    }
+
+    RuntimeApiStandIn() throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext(PREFIX, this::handle);
+        // invocation/next blocks until an event is queued
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    /**
+     * The value for {@code AWS_LAMBDA_RUNTIME_API}.
+     */
+    String address() {
+        return "localhost:" + server.getAddress().getPort();
+    }
+
+    void start() {
+        server.start();
+    }
+
+    void stop() {
+        server.stop(0);
+    }
+
+    /**
+     * Queue an event for the runtime, completing once it has posted a response or an error.
+     */
+    CompletableFuture<Result> invoke(byte[] event) {
+        String requestId = UUID.randomUUID().toString();
+        CompletableFuture<Result> result = new CompletableFuture<>();
+        inFlight.put(requestId, result);
+        queue.add(new Pending(requestId, event));
+        return result;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String path = exchange.getRequestURI().getPath().substring(PREFIX.length());
+            byte[] body;
+            try (InputStream in = exchange.getRequestBody()) {
+                body = in.readAllBytes();
+            }
+
+            if (path.equals("invocation/next") && exchange.getRequestMethod().equals("GET")) {
+                Pending pending = queue.take();
+                exchange.getResponseHeaders().set("Lambda-Runtime-Aws-Request-Id", pending.requestId());
+                exchange.getResponseHeaders().set("Lambda-Runtime-Deadline-Ms",
+                        Long.toString(System.currentTimeMillis() + 15_000));
+                exchange.getResponseHeaders().set("Lambda-Runtime-Invoked-Function-Arn",
+                        "arn:aws:lambda:us-east-1:000000000000:function:runtime-stand-in");
+                send(exchange, 200, pending.event());
+            } else if (path.equals("init/error")) {
+                Result result = new Result(true, body);
+                inFlight.values().forEach(future -> future.complete(result));
+                inFlight.clear();
+                send(exchange, 202, new byte[0]);
+            } else if (path.startsWith("invocation/") && (path.endsWith("/response") || path.endsWith("/error"))) {
+                String requestId = path.substring("invocation/".length(), path.lastIndexOf('/'));
+                CompletableFuture<Result> future = inFlight.remove(requestId);
+                if (future == null) {
+                    send(exchange, 400, ("Unknown request id " + requestId).getBytes(StandardCharsets.UTF_8));
+                    return;
+                }
+                future.complete(new Result(path.endsWith("/error"), body));
+                send(exchange, 202, new byte[0]);
+            } else {
+                send(exchange, 404, ("Unsupported runtime API call " + path).getBytes(StandardCharsets.UTF_8));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            exchange.close();
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            send(exchange, 500, String.valueOf(e.getMessage()).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
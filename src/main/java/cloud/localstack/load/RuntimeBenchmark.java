@@ -0,0 +1,194 @@
+package cloud.localstack.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the native build of a function with its JVM build under the same custom runtime: each run starts the
+ * {@code bootstrap} executable, or {@code LambdaRuntime} from the function jar on a JVM with the deployed
+ * {@code JAVA_TOOL_OPTIONS}, against a {@link RuntimeApiStandIn}. It reports the time from process start to the
+ * first response, the median latency of the warm invocations that follow and the process's peak resident memory
+ * ({@code VmHWM}, Linux only), which is what Lambda reports as memory used.
+ * <p>
+ * Options: {@code --native=<bootstrap>} and {@code --jar=<function jar>} (each repeatable),
+ * {@code --operation=get} (get, post, put, delete or list), {@code --runs=10}, {@code --invocations=50} and
+ * {@code --aws-port=4599}. The handler talks to the local database and the {@link AwsStandIn}, as in
+ * {@link StartupBenchmark}.
+ */
+public class RuntimeBenchmark {
+
+    private static final String RUNTIME = "cloud.localstack.db.runtime.LambdaRuntime";
+
+    private final List<Path> natives;
+    private final List<Path> jars;
+    private final Operation operation;
+    private final int runs;
+    private final int invocations;
+    private final LoadConfig config;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    RuntimeBenchmark(List<Path> natives, List<Path> jars, Operation operation, int runs, int invocations,
+                     LoadConfig config) {
+        this.natives = natives;
+        this.jars = jars;
+        this.operation = operation;
+        this.runs = runs;
+        this.invocations = invocations;
+        this.config = config;
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<Path> natives = new ArrayList<>();
+        List<Path> jars = new ArrayList<>();
+        Operation operation = Operation.GET;
+        int runs = 10;
+        int invocations = 50;
+        String awsPort = "4599";
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            String value = arg.substring(separator + 1);
+            switch (arg.substring(2, separator)) {
+                case "native" -> natives.add(Path.of(value).toAbsolutePath().normalize());
+                case "jar" -> jars.add(Path.of(value).toAbsolutePath().normalize());
+                case "operation" -> operation = Operation.valueOf(value.trim().toUpperCase());
+                case "runs" -> runs = Integer.parseInt(value);
+                case "invocations" -> invocations = Integer.parseInt(value);
+                case "aws-port" -> awsPort = value;
+                default -> throw new IllegalArgumentException("Unknown option " + arg.substring(0, separator));
+            }
+        }
+        if (natives.isEmpty() && jars.isEmpty()) {
+            System.out.println("Please pass at least one --native=<bootstrap> or --jar=<function jar>");
+            System.exit(1);
+        }
+
+        LoadConfig config = LoadConfig.fromArgs(new String[]{"--concurrency=1", "--aws-port=" + awsPort});
+        new RuntimeBenchmark(natives, jars, operation, runs, invocations, config).run(System.out);
+    }
+
+    void run(PrintStream out) throws Exception {
+        LocalDatabase database = new LocalDatabase(config);
+        database.prepareSchema(100);
+        long[] idRange = database.idRange();
+        // delete-dog must find nothing, or every invocation after the first measures a different path
+        long dogId = operation == Operation.DELETE ? Integer.MAX_VALUE : idRange[0];
+        byte[] event = objectMapper.writeValueAsBytes(operation.event(dogId));
+        Path log = Files.createTempFile("runtime-benchmark", ".log");
+
+        AwsStandIn aws = new AwsStandIn(config, database);
+        aws.start();
+        try {
+            Map<String, String> environment = StartupBenchmark.environment(config, aws.endpoint());
+            environment.put("_HANDLER", StartupBenchmark.handlerClass(operation));
+            environment.put("AWS_LAMBDA_FUNCTION_NAME", "runtime-benchmark");
+            environment.put("AWS_LAMBDA_FUNCTION_MEMORY_SIZE", "512");
+
+            out.printf("%-40s %-7s %9s %8s %8s %8s %9s %13s  %s%n",
+                    "target", "runtime", "size (MB)", "first", "p90", "max", "warm p50", "peak RSS (MB)", "status");
+            for (Path executable : natives) {
+                measure(out, executable, List.of(executable.toString()), environment, event, log, "native");
+            }
+            for (Path jar : jars) {
+                Map<String, String> jvmEnvironment = new LinkedHashMap<>(environment);
+                jvmEnvironment.put("JAVA_TOOL_OPTIONS", StartupBenchmark.TIERED_OPTIONS);
+                List<String> command = List.of(Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                        "-cp", jar.toString(), RUNTIME);
+                measure(out, jar, command, jvmEnvironment, event, log, "jvm");
+            }
+            out.println("Runtime output: " + log);
+        } finally {
+            aws.stop();
+        }
+    }
+
+    private void measure(PrintStream out, Path target, List<String> command, Map<String, String> environment,
+                         byte[] event, Path log, String runtime) throws Exception {
+        long[] firstMillis = new long[runs];
+        long[] warmMicros = new long[runs * invocations];
+        long[] peakKb = new long[runs];
+        Map<Integer, Integer> statusCodes = new TreeMap<>();
+
+        for (int run = 0; run < runs; run++) {
+            RuntimeApiStandIn runtimeApi = new RuntimeApiStandIn();
+            runtimeApi.start();
+            ProcessBuilder builder = new ProcessBuilder(command)
+                    .redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.appendTo(log.toFile()));
+            builder.environment().remove("JAVA_TOOL_OPTIONS");
+            builder.environment().remove("LISTEN_HOST");
+            builder.environment().putAll(environment);
+            builder.environment().put("AWS_LAMBDA_RUNTIME_API", runtimeApi.address());
+
+            long start = System.nanoTime();
+            Process process = builder.start();
+            try {
+                statusCodes.merge(statusCode(runtimeApi.invoke(event).get(60, TimeUnit.SECONDS)), 1, Integer::sum);
+                firstMillis[run] = (System.nanoTime() - start) / 1_000_000;
+                for (int i = 0; i < invocations; i++) {
+                    long sent = System.nanoTime();
+                    RuntimeApiStandIn.Result result = runtimeApi.invoke(event).get(60, TimeUnit.SECONDS);
+                    warmMicros[run * invocations + i] = (System.nanoTime() - sent) / 1_000;
+                    statusCodes.merge(statusCode(result), 1, Integer::sum);
+                }
+                peakKb[run] = peakResidentKb(process.pid());
+            } finally {
+                process.destroyForcibly().waitFor();
+                runtimeApi.stop();
+            }
+        }
+
+        Arrays.sort(firstMillis);
+        Arrays.sort(warmMicros);
+        Arrays.sort(peakKb);
+        long peak = StartupBenchmark.percentile(peakKb, 0.5);
+        out.printf("%-40s %-7s %9.1f %8d %8d %8d %9.2f %13s  %s%n",
+                target.getFileName(), runtime, Files.size(target) / (1024.0 * 1024.0),
+                StartupBenchmark.percentile(firstMillis, 0.5), StartupBenchmark.percentile(firstMillis, 0.9),
+                firstMillis[firstMillis.length - 1],
+                warmMicros.length == 0 ? 0.0 : StartupBenchmark.percentile(warmMicros, 0.5) / 1000.0,
+                peak < 0 ? "-" : String.format("%.1f", peak / 1024.0), statusCodes);
+    }
+
+    /**
+     * The response's status code, or -1 for a function or init error.
+     */
+    private int statusCode(RuntimeApiStandIn.Result result) throws IOException {
+        if (result.error()) {
+            System.out.println("Runtime reported an error: " + result.bodyText());
+            return -1;
+        }
+        JsonNode response = objectMapper.readTree(result.body());
+        return response == null ? -1 : response.path("statusCode").asInt(-1);
+    }
+
+    /**
+     * Peak resident set size in kB from {@code /proc/<pid>/status}, or -1 where there is none.
+     */
+    private static long peakResidentKb(long pid) throws IOException {
+        Path status = Path.of("/proc", Long.toString(pid), "status");
+        if (!Files.exists(status)) {
+            return -1;
+        }
+        for (String line : Files.readAllLines(status)) {
+            if (line.startsWith("VmHWM:")) {
+                return Long.parseLong(line.substring("VmHWM:".length()).replace("kB", "").trim());
+            }
+        }
+        return -1;
+    }
+}
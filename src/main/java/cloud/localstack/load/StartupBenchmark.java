@@ -0,0 +1,202 @@
+package cloud.localstack.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.ZipFile;
+
+/**
+ * Cold-start benchmark of function jars: each run starts a new JVM on the jar alone and times it until the
+ * handler has answered its first request, as {@code StartupProbe} in {@code dog-db-common} reports it. Every jar
+ * is measured with the JVM defaults, with the tiered-compilation options the functions are deployed with, and
+ * with those options plus the AppCDS archive the slim build writes next to the jar ({@code <jar>.jsa}).
+ * <p>
+ * Options: {@code --jar=<path>} (repeat to compare, e.g. the regular and the {@code -slim} jar),
+ * {@code --operation=get} (get, post, put, delete or list), {@code --runs=10} and {@code --aws-port=4599}. The handler
+ * talks to the local database and the {@link AwsStandIn}, configured as for the load harness.
+ */
+public class StartupBenchmark {
+
+    static final String TIERED_OPTIONS = "-XX:+TieredCompilation -XX:TieredStopAtLevel=1";
+
+    private static final String PROBE = "cloud.localstack.db.lifecycle.StartupProbe";
+    private static final String RESPONSE_MARKER = "first-response ";
+
+    private final List<Path> jars;
+    private final Operation operation;
+    private final int runs;
+    private final LoadConfig config;
+
+    StartupBenchmark(List<Path> jars, Operation operation, int runs, LoadConfig config) {
+        this.jars = jars;
+        this.operation = operation;
+        this.runs = runs;
+        this.config = config;
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<Path> jars = new ArrayList<>();
+        Operation operation = Operation.GET;
+        int runs = 10;
+        String awsPort = "4599";
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            String value = arg.substring(separator + 1);
+            switch (arg.substring(2, separator)) {
+                case "jar" -> jars.add(Path.of(value).toAbsolutePath().normalize());
+                case "operation" -> operation = Operation.valueOf(value.trim().toUpperCase());
+                case "runs" -> runs = Integer.parseInt(value);
+                case "aws-port" -> awsPort = value;
+                default -> throw new IllegalArgumentException("Unknown option " + arg.substring(0, separator));
+            }
+        }
+        if (jars.isEmpty()) {
+            System.out.println("Please pass at least one --jar=<function jar>");
+            System.exit(1);
+        }
+
+        LoadConfig config = LoadConfig.fromArgs(new String[]{"--concurrency=1", "--aws-port=" + awsPort});
+        new StartupBenchmark(jars, operation, runs, config).run(System.out);
+    }
+
+    void run(PrintStream out) throws Exception {
+        LocalDatabase database = new LocalDatabase(config);
+        database.prepareSchema(100);
+        long[] idRange = database.idRange();
+        // delete-dog must find nothing, or every run after the first measures a different path
+        long dogId = operation == Operation.DELETE ? Integer.MAX_VALUE : idRange[0];
+        Path event = Files.createTempFile("startup-event", ".json");
+        Files.write(event, new ObjectMapper().writeValueAsBytes(operation.event(dogId)));
+
+        AwsStandIn aws = new AwsStandIn(config, database);
+        aws.start();
+        try {
+            Map<String, String> environment = environment(config, aws.endpoint());
+            out.printf("%-40s %-14s %9s %8s %8s %8s %8s %8s  %s%n",
+                    "jar", "jvm", "size (MB)", "classes", "min", "p50", "p90", "max", "status");
+            for (Path jar : jars) {
+                for (Map.Entry<String, String> variant : variants(jar).entrySet()) {
+                    long[] millis = new long[runs];
+                    Map<Integer, Integer> statusCodes = new TreeMap<>();
+                    for (int i = 0; i < runs; i++) {
+                        Map<String, String> runEnvironment = new LinkedHashMap<>(environment);
+                        if (!variant.getValue().isEmpty()) {
+                            runEnvironment.put("JAVA_TOOL_OPTIONS", variant.getValue());
+                        }
+                        long start = System.nanoTime();
+                        int statusCode = probe(jar, event, runEnvironment);
+                        millis[i] = (System.nanoTime() - start) / 1_000_000;
+                        statusCodes.merge(statusCode, 1, Integer::sum);
+                    }
+                    Arrays.sort(millis);
+                    out.printf("%-40s %-14s %9.1f %8d %8d %8d %8d %8d  %s%n",
+                            jar.getFileName(), variant.getKey(), Files.size(jar) / (1024.0 * 1024.0), classCount(jar),
+                            millis[0], percentile(millis, 0.5), percentile(millis, 0.9), millis[millis.length - 1],
+                            statusCodes);
+                }
+            }
+        } finally {
+            aws.stop();
+            Files.deleteIfExists(event);
+        }
+    }
+
+    /**
+     * JVM options per variant, passed as {@code JAVA_TOOL_OPTIONS} like the Lambda configuration does.
+     */
+    private static Map<String, String> variants(Path jar) {
+        Map<String, String> variants = new LinkedHashMap<>();
+        variants.put("default", "");
+        variants.put("tiered", TIERED_OPTIONS);
+        Path archive = jar.resolveSibling(jar.getFileName().toString().replaceFirst("\\.jar$", ".jsa"));
+        if (Files.exists(archive)) {
+            // -Xshare:on fails the run instead of silently ignoring an archive that does not match the jar
+            variants.put("tiered+appcds", TIERED_OPTIONS + " -Xshare:on -XX:SharedArchiveFile=" + archive);
+        }
+        return variants;
+    }
+
+    /**
+     * The deployed functions' variables, pointed at the local database and the stand-in.
+     */
+    static Map<String, String> environment(LoadConfig config, String awsEndpoint) {
+        // jdbc:postgresql://host:port/database?options
+        String location = config.jdbcUrl().substring(config.jdbcUrl().indexOf("//") + 2);
+        int slash = location.indexOf('/');
+        int query = location.indexOf('?');
+        Map<String, String> environment = new LinkedHashMap<>();
+        environment.put("HOST", location.substring(0, slash));
+        environment.put("DATABASE_NAME", location.substring(slash + 1, query < 0 ? location.length() : query));
+        environment.put("SECRET_ARN", "arn:aws:secretsmanager:us-east-1:000000000000:secret:startup-benchmark");
+        environment.put("DB_CLUSTER_ARN", "arn:aws:rds:us-east-1:000000000000:cluster:startup-benchmark");
+        environment.put("AWS_REGION", System.getenv().getOrDefault("AWS_REGION", "us-east-1"));
+        environment.put("AWS_ENDPOINT_URL", awsEndpoint);
+        environment.put("AWS_ACCESS_KEY_ID", "test");
+        environment.put("AWS_SECRET_ACCESS_KEY", "test");
+        environment.put("METRICS_ENABLED", "false");
+        return environment;
+    }
+
+    private int probe(Path jar, Path event, Map<String, String> environment) throws IOException, InterruptedException {
+        ProcessBuilder builder = new ProcessBuilder(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", jar.toString(), PROBE, handlerClass(operation), event.toString())
+                .redirectErrorStream(true);
+        builder.environment().remove("JAVA_TOOL_OPTIONS");
+        builder.environment().remove("LISTEN_HOST");
+        builder.environment().putAll(environment);
+
+        Process process = builder.start();
+        List<String> output = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(RESPONSE_MARKER)) {
+                    int statusCode = Integer.parseInt(line.substring(RESPONSE_MARKER.length()).trim());
+                    process.waitFor();
+                    return statusCode;
+                }
+                output.add(line);
+            }
+        }
+        process.waitFor();
+        throw new IllegalStateException("No response from " + jar.getFileName() + " (exit code "
+                + process.exitValue() + "):\n" + String.join("\n", output));
+    }
+
+    static String handlerClass(Operation operation) {
+        return switch (operation) {
+            case GET -> "cloud.localstack.getdog.GetDogStreamHandler";
+            case POST -> "cloud.localstack.postdog.AddDogStreamHandler";
+            case PUT -> "cloud.localstack.putdog.UpdateDogStreamHandler";
+            case DELETE -> "cloud.localstack.deletedog.DeleteDogStreamHandler";
+            case LIST -> "cloud.localstack.listdogs.ListDogsStreamHandler";
+        };
+    }
+
+    private static int classCount(Path jar) throws IOException {
+        try (ZipFile zip = new ZipFile(jar.toFile())) {
+            return (int) zip.stream().filter(entry -> entry.getName().endsWith(".class")).count();
+        }
+    }
+
+    static long percentile(long[] sorted, double fraction) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(fraction * sorted.length) - 1)];
+    }
+}
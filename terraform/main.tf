@@ -167,6 +167,15 @@ resource "aws_rds_cluster_instance" "dogdb_instance" {
   engine             = "aurora-postgresql"
 }
 
+resource "aws_rds_cluster_instance" "dogdb_reader_instance" {
+  identifier         = "dogdb-reader-instance"
+  cluster_identifier = aws_rds_cluster.dogdb.id
+  instance_class     = "db.t3.medium"
+  engine             = "aurora-postgresql"
+
+  depends_on = [aws_rds_cluster_instance.dogdb_instance]
+}
+
 # RDS Proxy with username and password authentication enabled
 
 resource "aws_db_proxy" "dogdb_secret_proxy" {
@@ -208,6 +217,21 @@ resource "aws_db_proxy_target" "secret_proxy_target" {
 }
 
 
+# Read-only endpoint of the secret-auth proxy, for list-dogs and dog-stats
+
+resource "aws_db_proxy_endpoint" "dogdb_secret_proxy_reader" {
+  db_proxy_name          = aws_db_proxy.dogdb_secret_proxy.name
+  db_proxy_endpoint_name = "dogdb-secret-proxy-reader"
+  vpc_subnet_ids         = [
+    aws_subnet.private_subnet_1.id,
+    aws_subnet.private_subnet_2.id,
+  ]
+  vpc_security_group_ids = [aws_security_group.rds_proxy_sg.id]
+  target_role            = "READ_ONLY"
+
+  depends_on = [aws_rds_cluster_instance.dogdb_reader_instance]
+}
+
 resource "aws_db_proxy_default_target_group" "iam_proxy_target_group" {
   db_proxy_name = aws_db_proxy.dogdb_iam_proxy.name
 }
@@ -349,6 +373,24 @@ resource "aws_iam_policy" "lambda_policy" {
           "secretsmanager:DescribeSecret"
         ],
         Resource = "arn:aws:secretsmanager:us-east-1:*:secret:dogdb-secret-*"
+      },
+      {
+        Effect   = "Allow",
+        Action   = [
+          "sqs:ReceiveMessage",
+          "sqs:DeleteMessage",
+          "sqs:GetQueueAttributes"
+        ],
+        Resource = aws_sqs_queue.dog_writes.arn
+      },
+      {
+        Effect   = "Allow",
+        Action   = [
+          "s3:GetObject",
+          "s3:PutObject",
+          "s3:AbortMultipartUpload"
+        ],
+        Resource = "${aws_s3_bucket.dog_transfers.arn}/*"
       }
     ]
   })
@@ -400,12 +442,28 @@ resource "aws_cloudwatch_log_group" "lambda_log_group" {
 #           LAMBDA FUNCTIONS            #
 #########################################
 
+locals {
+  # the dog API functions run as native executables on provided.al2023 when var.native_image is set
+  dog_api_runtime = var.native_image ? "provided.al2023" : "java21"
+  dog_api_package = var.native_image ? "-native.zip" : "${var.lambda_jar_suffix}.jar"
+}
+
 resource "aws_lambda_function" "get_dog" {
   function_name = "get-dog"
-  runtime       = "java21"
+  runtime       = local.dog_api_runtime
   role          = aws_iam_role.lambda_role.arn
-  handler       = "cloud.localstack.getdog.GetDogHandler"
-  filename      = "../api-lambdas/get-dog-lambda/target/get-dog-lambda-1.0.0.jar"
+  handler       = "cloud.localstack.getdog.GetDogStreamHandler"
+  filename      = "../api-lambdas/get-dog-lambda/target/get-dog-lambda-1.0.0${local.dog_api_package}"
+  # a new version is only published when the jar changes
+  source_code_hash = filebase64sha256("../api-lambdas/get-dog-lambda/target/get-dog-lambda-1.0.0${local.dog_api_package}")
+  publish       = true
+
+  dynamic "snap_start" {
+    for_each = var.native_image ? [] : [1]
+    content {
+      apply_on = "PublishedVersions"
+    }
+  }
 
   vpc_config {
     subnet_ids         = [
@@ -420,18 +478,30 @@ resource "aws_lambda_function" "get_dog" {
       SECRET_ARN     = aws_secretsmanager_secret.super_secret.arn
       DATABASE_NAME  = var.db_name
       DB_CLUSTER_ARN = aws_rds_cluster.dogdb.arn
+      # LISTEN pins proxy connections, so the cache invalidation listener talks to the cluster directly
+      LISTEN_HOST    = aws_rds_cluster.dogdb.endpoint
+      JAVA_TOOL_OPTIONS = var.java_tool_options
     }
   }
 }
 
 resource "aws_lambda_function" "post_dog" {
   function_name = "post-dog"
-  runtime       = "java21"
+  runtime       = local.dog_api_runtime
   role          = aws_iam_role.lambda_role.arn
-  handler       = "cloud.localstack.postdog.AddDogHandler"
-  filename      = "../api-lambdas/post-dog-lambda/target/post-dog-lambda-1.0.0.jar"
+  handler       = "cloud.localstack.postdog.AddDogStreamHandler"
+  filename      = "../api-lambdas/post-dog-lambda/target/post-dog-lambda-1.0.0${local.dog_api_package}"
+  source_code_hash = filebase64sha256("../api-lambdas/post-dog-lambda/target/post-dog-lambda-1.0.0${local.dog_api_package}")
   timeout       = 15
   memory_size   = 512
+  publish       = true
+
+  dynamic "snap_start" {
+    for_each = var.native_image ? [] : [1]
+    content {
+      apply_on = "PublishedVersions"
+    }
+  }
 
   vpc_config {
     subnet_ids         = [
@@ -447,18 +517,29 @@ resource "aws_lambda_function" "post_dog" {
       DATABASE_NAME = var.db_name
       DB_USER     = var.db_username
       USER_PASSWORD = var.db_password
+      SESSION_LSN_ENABLED = var.session_lsn_enabled
+      JAVA_TOOL_OPTIONS = var.java_tool_options
     }
   }
 }
 
 resource "aws_lambda_function" "put_dog" {
   function_name = "put-dog"
-  runtime       = "java21"
+  runtime       = local.dog_api_runtime
   role          = aws_iam_role.lambda_role.arn
-  handler       = "cloud.localstack.putdog.UpdateDogHandler"
-  filename      = "../api-lambdas/put-dog-lambda/target/put-dog-lambda-1.0.0.jar"
+  handler       = "cloud.localstack.putdog.UpdateDogStreamHandler"
+  filename      = "../api-lambdas/put-dog-lambda/target/put-dog-lambda-1.0.0${local.dog_api_package}"
+  source_code_hash = filebase64sha256("../api-lambdas/put-dog-lambda/target/put-dog-lambda-1.0.0${local.dog_api_package}")
   timeout       = 15
   memory_size   = 512
+  publish       = true
+
+  dynamic "snap_start" {
+    for_each = var.native_image ? [] : [1]
+    content {
+      apply_on = "PublishedVersions"
+    }
+  }
 
   vpc_config {
     subnet_ids         = [
@@ -474,16 +555,102 @@ resource "aws_lambda_function" "put_dog" {
       DATABASE_NAME = var.db_name
       DB_USER     = var.iam_username
       AWS_REGION    = var.aws_region
+      SESSION_LSN_ENABLED = var.session_lsn_enabled
+      JAVA_TOOL_OPTIONS = var.java_tool_options
     }
   }
 }
 
 resource "aws_lambda_function" "delete_dog" {
   function_name = "delete-dog"
-  runtime       = "java21"
+  runtime       = local.dog_api_runtime
+  role          = aws_iam_role.lambda_role.arn
+  handler       = "cloud.localstack.deletedog.DeleteDogStreamHandler"
+  filename      = "../api-lambdas/delete-dog-lambda/target/delete-dog-lambda-1.0.0${local.dog_api_package}"
+  source_code_hash = filebase64sha256("../api-lambdas/delete-dog-lambda/target/delete-dog-lambda-1.0.0${local.dog_api_package}")
+  publish       = true
+
+  dynamic "snap_start" {
+    for_each = var.native_image ? [] : [1]
+    content {
+      apply_on = "PublishedVersions"
+    }
+  }
+
+  vpc_config {
+    subnet_ids         = [
+      aws_subnet.private_subnet_1.id,
+      aws_subnet.private_subnet_2.id,
+    ]
+    security_group_ids = [aws_security_group.lambda_sg.id]
+  }
+
+  environment {
+    variables = {
+      HOST          = aws_db_proxy.dogdb_secret_proxy.endpoint
+      SECRET_ARN    = aws_secretsmanager_secret.super_secret.arn
+      AWS_REGION    = var.aws_region
+      DATABASE_NAME = var.db_name
+      SESSION_LSN_ENABLED = var.session_lsn_enabled
+      JAVA_TOOL_OPTIONS = var.java_tool_options
+    }
+  }
+
+}
+
+resource "aws_lambda_function" "list_dogs" {
+  function_name = "list-dogs"
+  runtime       = local.dog_api_runtime
+  role          = aws_iam_role.lambda_role.arn
+  handler       = "cloud.localstack.listdogs.ListDogsStreamHandler"
+  filename      = "../api-lambdas/list-dogs-lambda/target/list-dogs-lambda-1.0.0${local.dog_api_package}"
+  source_code_hash = filebase64sha256("../api-lambdas/list-dogs-lambda/target/list-dogs-lambda-1.0.0${local.dog_api_package}")
+  timeout       = 15
+  memory_size   = 512
+  publish       = true
+
+  dynamic "snap_start" {
+    for_each = var.native_image ? [] : [1]
+    content {
+      apply_on = "PublishedVersions"
+    }
+  }
+
+  vpc_config {
+    subnet_ids         = [
+      aws_subnet.private_subnet_1.id,
+      aws_subnet.private_subnet_2.id,
+    ]
+    security_group_ids = [aws_security_group.lambda_sg.id]
+  }
+
+  environment {
+    variables = {
+      HOST          = aws_db_proxy.dogdb_secret_proxy.endpoint
+      READER_HOST   = aws_db_proxy_endpoint.dogdb_secret_proxy_reader.endpoint
+      SECRET_ARN    = aws_secretsmanager_secret.super_secret.arn
+      AWS_REGION    = var.aws_region
+      DATABASE_NAME = var.db_name
+      JAVA_TOOL_OPTIONS = var.java_tool_options
+    }
+  }
+}
+
+resource "aws_lambda_function" "dog_stats" {
+  function_name = "dog-stats"
+  runtime       = local.dog_api_runtime
   role          = aws_iam_role.lambda_role.arn
-  handler       = "cloud.localstack.deletedog.DeleteDogHandler"
-  filename      = "../api-lambdas/delete-dog-lambda/target/delete-dog-lambda-1.0.0.jar"
+  handler       = "cloud.localstack.listdogs.DogStatsStreamHandler"
+  filename      = "../api-lambdas/list-dogs-lambda/target/list-dogs-lambda-1.0.0${local.dog_api_package}"
+  source_code_hash = filebase64sha256("../api-lambdas/list-dogs-lambda/target/list-dogs-lambda-1.0.0${local.dog_api_package}")
+  publish       = true
+
+  dynamic "snap_start" {
+    for_each = var.native_image ? [] : [1]
+    content {
+      apply_on = "PublishedVersions"
+    }
+  }
 
   vpc_config {
     subnet_ids         = [
@@ -496,12 +663,115 @@ resource "aws_lambda_function" "delete_dog" {
   environment {
     variables = {
       HOST          = aws_db_proxy.dogdb_secret_proxy.endpoint
+      READER_HOST   = aws_db_proxy_endpoint.dogdb_secret_proxy_reader.endpoint
       SECRET_ARN    = aws_secretsmanager_secret.super_secret.arn
       AWS_REGION    = var.aws_region
       DATABASE_NAME = var.db_name
+      JAVA_TOOL_OPTIONS = var.java_tool_options
+    }
+  }
+}
+
+#########################################
+#           QUEUED BATCH WRITES         #
+#########################################
+
+resource "aws_sqs_queue" "dog_writes_dlq" {
+  name = "dog-writes-dlq"
+}
+
+resource "aws_sqs_queue" "dog_writes" {
+  name                       = "dog-writes"
+  # at least six times the consumer's timeout, as recommended for Lambda event sources
+  visibility_timeout_seconds = 180
+  redrive_policy             = jsonencode({
+    deadLetterTargetArn = aws_sqs_queue.dog_writes_dlq.arn
+    maxReceiveCount     = 3
+  })
+}
+
+resource "aws_lambda_function" "batch_write" {
+  function_name = "batch-write"
+  runtime       = "java21"
+  role          = aws_iam_role.lambda_role.arn
+  handler       = "cloud.localstack.batchwrite.BatchWriteHandler"
+  filename      = "../api-lambdas/batch-write-lambda/target/batch-write-lambda-1.0.0${var.lambda_jar_suffix}.jar"
+  source_code_hash = filebase64sha256("../api-lambdas/batch-write-lambda/target/batch-write-lambda-1.0.0${var.lambda_jar_suffix}.jar")
+  timeout       = 30
+  memory_size   = 512
+  publish       = true
+
+  snap_start {
+    apply_on = "PublishedVersions"
+  }
+
+  vpc_config {
+    subnet_ids         = [
+      aws_subnet.private_subnet_1.id,
+      aws_subnet.private_subnet_2.id,
+    ]
+    security_group_ids = [aws_security_group.lambda_sg.id]
+  }
+
+  environment {
+    variables = {
+      HOST             = aws_db_proxy.dogdb_secret_proxy.endpoint
+      SECRET_ARN       = aws_secretsmanager_secret.super_secret.arn
+      AWS_REGION       = var.aws_region
+      DATABASE_NAME    = var.db_name
+      DB_POOL_MAX_SIZE = "4"
+      JAVA_TOOL_OPTIONS = var.java_tool_options
     }
   }
+}
+
+resource "aws_lambda_event_source_mapping" "dog_writes" {
+  event_source_arn                   = aws_sqs_queue.dog_writes.arn
+  function_name                      = aws_lambda_function.batch_write.qualified_arn
+  batch_size                         = 500
+  maximum_batching_window_in_seconds = 1
+  function_response_types            = ["ReportBatchItemFailures"]
+
+  # a few containers with a handful of connections each, however deep the queue gets
+  scaling_config {
+    maximum_concurrency = 2
+  }
+}
+
+#########################################
+#         BULK IMPORT AND EXPORT        #
+#########################################
+
+resource "aws_s3_bucket" "dog_transfers" {
+  bucket = "dog-transfers"
+}
+
+resource "aws_lambda_function" "import_export" {
+  function_name = "import-export"
+  runtime       = "java21"
+  role          = aws_iam_role.lambda_role.arn
+  handler       = "cloud.localstack.importexport.ImportExportHandler"
+  filename      = "../api-lambdas/import-export-lambda/target/import-export-lambda-1.0.0${var.lambda_jar_suffix}.jar"
+  source_code_hash = filebase64sha256("../api-lambdas/import-export-lambda/target/import-export-lambda-1.0.0${var.lambda_jar_suffix}.jar")
+  timeout       = 900
+  memory_size   = 1024
+
+  vpc_config {
+    subnet_ids         = [
+      aws_subnet.private_subnet_1.id,
+      aws_subnet.private_subnet_2.id,
+    ]
+    security_group_ids = [aws_security_group.lambda_sg.id]
+  }
 
+  environment {
+    variables = {
+      HOST          = aws_db_proxy.dogdb_secret_proxy.endpoint
+      SECRET_ARN    = aws_secretsmanager_secret.super_secret.arn
+      AWS_REGION    = var.aws_region
+      DATABASE_NAME = var.db_name
+    }
+  }
 }
 
 #########################################
@@ -527,7 +797,7 @@ resource "aws_apigatewayv2_stage" "default_stage" {
 resource "aws_apigatewayv2_integration" "post_dog_integration" {
   api_id           = aws_apigatewayv2_api.dog_api.id
   integration_type = "AWS_PROXY"
-  integration_uri  = aws_lambda_function.post_dog.invoke_arn
+  integration_uri  = aws_lambda_function.post_dog.qualified_invoke_arn
 }
 
 resource "aws_apigatewayv2_route" "post_dog_route" {
@@ -539,7 +809,7 @@ resource "aws_apigatewayv2_route" "post_dog_route" {
 resource "aws_apigatewayv2_integration" "put_dog_integration" {
   api_id           = aws_apigatewayv2_api.dog_api.id
   integration_type = "AWS_PROXY"
-  integration_uri  = aws_lambda_function.put_dog.invoke_arn
+  integration_uri  = aws_lambda_function.put_dog.qualified_invoke_arn
 }
 
 resource "aws_apigatewayv2_route" "put_dog_route" {
@@ -548,10 +818,16 @@ resource "aws_apigatewayv2_route" "put_dog_route" {
   target    = "integrations/${aws_apigatewayv2_integration.put_dog_integration.id}"
 }
 
+resource "aws_apigatewayv2_route" "patch_dog_route" {
+  api_id    = aws_apigatewayv2_api.dog_api.id
+  route_key = "PATCH /dogs"
+  target    = "integrations/${aws_apigatewayv2_integration.put_dog_integration.id}"
+}
+
 resource "aws_apigatewayv2_integration" "delete_dog_integration" {
   api_id           = aws_apigatewayv2_api.dog_api.id
   integration_type = "AWS_PROXY"
-  integration_uri  = aws_lambda_function.delete_dog.invoke_arn
+  integration_uri  = aws_lambda_function.delete_dog.qualified_invoke_arn
 }
 
 resource "aws_apigatewayv2_route" "delete_dog_route" {
@@ -560,10 +836,16 @@ resource "aws_apigatewayv2_route" "delete_dog_route" {
   target    = "integrations/${aws_apigatewayv2_integration.delete_dog_integration.id}"
 }
 
+resource "aws_apigatewayv2_route" "bulk_delete_dogs_route" {
+  api_id    = aws_apigatewayv2_api.dog_api.id
+  route_key = "DELETE /dogs"
+  target    = "integrations/${aws_apigatewayv2_integration.delete_dog_integration.id}"
+}
+
 resource "aws_apigatewayv2_integration" "get_dog_integration" {
   api_id           = aws_apigatewayv2_api.dog_api.id
   integration_type = "AWS_PROXY"
-  integration_uri  = aws_lambda_function.get_dog.invoke_arn
+  integration_uri  = aws_lambda_function.get_dog.qualified_invoke_arn
 }
 
 resource "aws_apigatewayv2_route" "get_dog_route" {
@@ -572,6 +854,31 @@ resource "aws_apigatewayv2_route" "get_dog_route" {
   target    = "integrations/${aws_apigatewayv2_integration.get_dog_integration.id}"
 }
 
+resource "aws_apigatewayv2_integration" "list_dogs_integration" {
+  api_id           = aws_apigatewayv2_api.dog_api.id
+  integration_type = "AWS_PROXY"
+  integration_uri  = aws_lambda_function.list_dogs.qualified_invoke_arn
+}
+
+resource "aws_apigatewayv2_route" "list_dogs_route" {
+  api_id    = aws_apigatewayv2_api.dog_api.id
+  route_key = "GET /dogs"
+  target    = "integrations/${aws_apigatewayv2_integration.list_dogs_integration.id}"
+}
+
+resource "aws_apigatewayv2_integration" "dog_stats_integration" {
+  api_id           = aws_apigatewayv2_api.dog_api.id
+  integration_type = "AWS_PROXY"
+  integration_uri  = aws_lambda_function.dog_stats.qualified_invoke_arn
+}
+
+# more specific than GET /dogs/{id}, so it wins for this path
+resource "aws_apigatewayv2_route" "dog_stats_route" {
+  api_id    = aws_apigatewayv2_api.dog_api.id
+  route_key = "GET /dogs/stats"
+  target    = "integrations/${aws_apigatewayv2_integration.dog_stats_integration.id}"
+}
+
 #########################################
 #          DATABASE INITIALIZATION      #
 #########################################
@@ -581,7 +888,9 @@ resource "aws_lambda_function" "db-setup" {
   runtime       = "java21"
   role          = aws_iam_role.lambda_role.arn
   handler       = "cloud.localstack.initdb.InitDBHandler"
-  filename      = "../api-lambdas/db-setup-lambda/target/db-setup-lambda-1.0.0.jar"
+  filename      = "../api-lambdas/db-setup-lambda/target/db-setup-lambda-1.0.0${var.lambda_jar_suffix}.jar"
+  # building indexes concurrently on a large table takes a while
+  timeout       = 300
 
   vpc_config {
     subnet_ids         = [
@@ -597,6 +906,7 @@ resource "aws_lambda_function" "db-setup" {
       DB_SECRET_ARN      = aws_secretsmanager_secret.super_secret.arn
       RDS_PROXY_ENDPOINT = aws_db_proxy.dogdb_secret_proxy.endpoint
       DB_NAME            = var.db_name
+      JAVA_TOOL_OPTIONS = var.java_tool_options
     }
   }
 }
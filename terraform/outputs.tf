@@ -1,3 +1,7 @@
 output "api_gateway_url" {
   value = aws_apigatewayv2_api.dog_api.api_endpoint
 }
+
+output "dog_writes_queue_url" {
+  value = aws_sqs_queue.dog_writes.url
+}
@@ -24,4 +24,26 @@ variable "iam_password" {
 
 variable "aws_account_id" {
   default = "000000000000"
-}
\ No newline at end of file
+}
+
+variable "lambda_jar_suffix" {
+  # "-slim" deploys the minimized jars built with `mvn package -Pslim`
+  default = ""
+}
+
+variable "native_image" {
+  # deploys the dog API functions from the -native.zip packages built with `mvn package -Pnative`
+  default = false
+}
+
+variable "java_tool_options" {
+  # C1 only, for every function but import-export: they are short-lived, and C2 compilation would compete with
+  # the first requests for the little CPU a small function gets
+  default = "-XX:+TieredCompilation -XX:TieredStopAtLevel=1"
+}
+
+variable "session_lsn_enabled" {
+  # without the token there is no read-your-writes on the reader endpoint; Aurora readers report no replay
+  # position, so reads with an X-Session-LSN go to the writer there
+  default = "true"
+}